@@ -0,0 +1,74 @@
+package org.sebas.blogbackendspringboot;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a Tomcat-sized platform thread pool with virtual threads (spring.threads.virtual.enabled)
+ * Each task stands in for a request that spends most of its time blocked on the database,
+ * one operation runs a burst of concurrent requests to completion
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RequestThreadingBenchmark {
+
+    // Tomcat's default server.tomcat.threads.max
+    private static final int PLATFORM_POOL_SIZE = 200;
+
+    @Param({"200", "2000", "10000"})
+    public int concurrentRequests;
+
+    @Param({"10"})
+    public long blockingMillis;
+
+    private ExecutorService platformPool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        platformPool = Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        platformPool.shutdownNow();
+    }
+
+    @Benchmark
+    public int platformThreads() throws Exception {
+        return runBurst(platformPool);
+    }
+
+    @Benchmark
+    public int virtualThreads() throws Exception {
+        try (ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor()) {
+            return runBurst(virtual);
+        }
+    }
+
+    private int runBurst(ExecutorService executor) throws Exception {
+        List<Future<Integer>> requests = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            int request = i;
+            requests.add(executor.submit(() -> {
+                Thread.sleep(blockingMillis);
+                return request;
+            }));
+        }
+        int completed = 0;
+        for (Future<Integer> request : requests) {
+            request.get();
+            completed++;
+        }
+        return completed;
+    }
+}
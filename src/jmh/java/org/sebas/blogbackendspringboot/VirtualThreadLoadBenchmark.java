@@ -0,0 +1,164 @@
+package org.sebas.blogbackendspringboot;
+
+import org.openjdk.jmh.annotations.*;
+import org.sebas.blogbackendspringboot.model.Category;
+import org.sebas.blogbackendspringboot.model.Post;
+import org.sebas.blogbackendspringboot.model.User;
+import org.sebas.blogbackendspringboot.repo.CategoryRepo;
+import org.sebas.blogbackendspringboot.repo.PostRepo;
+import org.sebas.blogbackendspringboot.repo.UserRepo;
+import org.sebas.blogbackendspringboot.service.JWTService;
+import org.sebas.blogbackendspringboot.service.PostImportService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load on the running application with and without spring.threads.virtual.enabled
+ * Boots the app on a random port against H2 and drives it over HTTP from 400 client threads,
+ * twice Tomcat's default 200 request threads, so requests go through the connector, the JWT
+ * filter, JPA and the Hikari pool. RequestThreadingBenchmark only compares the executors.
+ * H2 answers in microseconds, so this shows the overhead and queueing of each mode rather than
+ * MySQL round trips; point spring.datasource.* at MySQL for those
+ * Run with: mvn -Pjmh -DskipTests verify -Djmh.includes=VirtualThreadLoadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(400)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+
+    private static final int POSTS = 1000;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private String username;
+    private volatile String authorization;
+    private long[] postIds;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Failures {
+        // Non-200 answers, e.g. 500 after a connection-timeout, and requests the client gave up on
+        public long failedRequests;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            failedRequests = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(BlogBackendSpringbootApplication.class)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=sa",
+                        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.open-in-view=false",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        // Production pool and thread sizes, see application.properties
+                        "spring.datasource.hikari.maximum-pool-size=20",
+                        "spring.datasource.hikari.connection-timeout=3000",
+                        "server.tomcat.threads.max=200",
+                        "blog.query-stats.fail-on-budget-exceeded=false",
+                        "spring.main.banner-mode=off",
+                        "server.port=0",
+                        "logging.level.root=WARN")
+                .run();
+
+        User author = new User();
+        author.setUsername("loaduser");
+        author.setEmail("load@example.com");
+        author.setPassword("password123");
+        author = context.getBean(UserRepo.class).save(author);
+
+        Category category = new Category();
+        category.setName("Load");
+        category = context.getBean(CategoryRepo.class).save(category);
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < POSTS; i++) {
+            ndjson.append("{\"title\":\"Load post ").append(i)
+                    .append("\",\"content\":\"Generated content for post ").append(i)
+                    .append("\",\"authorId\":").append(author.getId())
+                    .append(",\"categoryId\":").append(category.getId())
+                    .append("}\n");
+        }
+        context.getBean(PostImportService.class)
+                .importPosts(new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+        postIds = context.getBean(PostRepo.class).findAll().stream().mapToLong(Post::getId).toArray();
+        username = author.getUsername();
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    // A JWT skips BCrypt, which would otherwise dominate every request.
+    // Tokens live 36 seconds, shorter than a trial, so each iteration gets a fresh one
+    @Setup(Level.Iteration)
+    public void issueToken() {
+        authorization = "Bearer " + context.getBean(JWTService.class).generateToken(username);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    // Keyset page straight from the database on every request
+    @Benchmark
+    public int postsPage(Failures failures) throws Exception {
+        return get("/api/posts/page?size=20", failures);
+    }
+
+    // Single post, mostly served from the post cache after the first read of each id
+    @Benchmark
+    public int postById(Failures failures) throws Exception {
+        long id = postIds[ThreadLocalRandom.current().nextInt(postIds.length)];
+        return get("/api/posts/" + id, failures);
+    }
+
+    private int get(String path, Failures failures) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", authorization)
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                failures.failedRequests++;
+            }
+            return response.body().length;
+        } catch (HttpTimeoutException e) {
+            failures.failedRequests++;
+            return 0;
+        }
+    }
+}
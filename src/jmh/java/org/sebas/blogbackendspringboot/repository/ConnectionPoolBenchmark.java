@@ -0,0 +1,84 @@
+package org.sebas.blogbackendspringboot.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test for the Hikari pool size against Tomcat's request threads
+ * Each JMH thread stands in for one Tomcat thread serving a request that holds a connection for
+ * holdMillis, so 200 threads is server.tomcat.threads.max at its default. The acquire counters show
+ * how long requests queue for a connection at each pool size; a size is enough when acquire wait
+ * stays a small fraction of the hold time at the expected request rate
+ * Run with: mvn -Pjmh -DskipTests verify -Djmh.includes=ConnectionPoolBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(200)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+
+    @Param({"10", "20", "50"})
+    public int poolSize;
+
+    // Time a request keeps its connection, queries plus whatever runs inside the transaction
+    @Param({"5"})
+    public long holdMillis;
+
+    private HikariDataSource dataSource;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class AcquireCounters {
+        public long acquireWaitMicros;
+        public long slowAcquires;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            acquireWaitMicros = 0;
+            slowAcquires = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:pool-benchmark;DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName("benchmark-pool");
+        dataSource.setMaximumPoolSize(poolSize);
+        // Same timeout as application.properties, a request that waits this long fails
+        dataSource.setConnectionTimeout(3000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void request(AcquireCounters counters, Blackhole blackhole) throws Exception {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            long waitMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            counters.acquireWaitMicros += waitMicros;
+            if (waitMicros > TimeUnit.MILLISECONDS.toMicros(holdMillis)) {
+                counters.slowAcquires++;
+            }
+            try (PreparedStatement statement = connection.prepareStatement("SELECT 1");
+                 ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                blackhole.consume(resultSet.getInt(1));
+            }
+            // The rest of the request's time on the connection, network round trips to MySQL
+            Thread.sleep(holdMillis);
+        }
+    }
+}
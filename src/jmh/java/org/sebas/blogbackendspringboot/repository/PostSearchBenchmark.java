@@ -0,0 +1,106 @@
+package org.sebas.blogbackendspringboot.repository;
+
+import org.openjdk.jmh.annotations.*;
+import org.sebas.blogbackendspringboot.BlogBackendSpringbootApplication;
+import org.sebas.blogbackendspringboot.dto.CreatePostDto;
+import org.sebas.blogbackendspringboot.model.Category;
+import org.sebas.blogbackendspringboot.model.User;
+import org.sebas.blogbackendspringboot.repo.CategoryRepo;
+import org.sebas.blogbackendspringboot.repo.PostRepo;
+import org.sebas.blogbackendspringboot.repo.UserRepo;
+import org.sebas.blogbackendspringboot.service.PostImportService;
+import org.sebas.blogbackendspringboot.service.PostService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks title search against an in-memory H2 dataset of configurable size
+ * likeQuery is the PostRepo.searchByTitle LIKE scan and returns every match,
+ * luceneSearch is the /posts/search path: index lookup plus hydrating one page by id
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostSearchBenchmark {
+
+    // Every title gets one topic, so a search for one of them matches 1/16 of the rows
+    private static final String[] TOPICS = {
+            "spring", "java", "kubernetes", "docker", "mysql", "lucene", "security", "testing",
+            "caching", "jpa", "hibernate", "gradle", "maven", "kotlin", "react", "linux"
+    };
+
+    @Param({"1000", "10000", "100000"})
+    public int posts;
+
+    @Param({"kubernetes"})
+    public String term;
+
+    private ConfigurableApplicationContext context;
+    private PostRepo postRepo;
+    private PostService postService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(BlogBackendSpringbootApplication.class)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=sa",
+                        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        "spring.main.banner-mode=off",
+                        "server.port=0",
+                        "logging.level.root=WARN")
+                .run();
+        postRepo = context.getBean(PostRepo.class);
+        postService = context.getBean(PostService.class);
+
+        User author = new User();
+        author.setUsername("benchuser");
+        author.setEmail("bench@example.com");
+        author.setPassword("password123");
+        author = context.getBean(UserRepo.class).save(author);
+
+        Category category = new Category();
+        category.setName("Benchmarks");
+        category = context.getBean(CategoryRepo.class).save(category);
+
+        // Seed through the bulk import, which also fills the search index
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < posts; i++) {
+            ndjson.append("{\"title\":\"Post ").append(i).append(" about ").append(TOPICS[i % TOPICS.length])
+                    .append("\",\"content\":\"Generated content for post ").append(i)
+                    .append("\",\"authorId\":").append(author.getId())
+                    .append(",\"categoryId\":").append(category.getId())
+                    .append("}\n");
+        }
+        context.getBean(PostImportService.class)
+                .importPosts(new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<CreatePostDto> likeQuery() {
+        return postRepo.searchByTitle(term);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> luceneSearch() {
+        return postService.searchPosts(term, null, 0, 20);
+    }
+}
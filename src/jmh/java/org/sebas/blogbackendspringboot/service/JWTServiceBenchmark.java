@@ -0,0 +1,65 @@
+package org.sebas.blogbackendspringboot.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.sebas.blogbackendspringboot.model.User;
+import org.sebas.blogbackendspringboot.model.UserPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks token signing and the validation done by JWTFilter on every request
+ * validateToken hits the verification cache after the first call, validateDistinctTokens
+ * cycles through more tokens than the cache holds so most calls pay for a full parse
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTServiceBenchmark {
+
+    private static final int DISTINCT_TOKENS = 50_000;
+
+    private JWTService jwtService;
+    private UserDetails userDetails;
+    private String token;
+    private String[] distinctTokens;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        jwtService = new JWTService();
+
+        User user = new User();
+        user.setUsername("benchuser");
+        user.setPassword("password123");
+        user.setEmail("bench@example.com");
+        userDetails = new UserPrincipal(user);
+
+        token = jwtService.generateToken(user.getUsername());
+        distinctTokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            // Tokens issued in the same second are identical, so vary the subject instead
+            distinctTokens[i] = jwtService.generateToken("user" + i);
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("benchuser");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(token, userDetails);
+    }
+
+    @Benchmark
+    public JWTService.VerifiedToken validateDistinctTokens() {
+        String candidate = distinctTokens[next];
+        next = (next + 1) % DISTINCT_TOKENS;
+        return jwtService.verify(candidate);
+    }
+}
@@ -0,0 +1,70 @@
+package org.sebas.blogbackendspringboot.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.sebas.blogbackendspringboot.dto.CreatePostDto;
+import org.sebas.blogbackendspringboot.model.Category;
+import org.sebas.blogbackendspringboot.model.Post;
+import org.sebas.blogbackendspringboot.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks PostService's entity to CreatePostDto conversion over large lists
+ * Entities are built in memory, so this measures mapping cost only, not JPA loading
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostDtoMappingBenchmark {
+
+    @Param({"1000", "100000"})
+    public int posts;
+
+    private PostService postService;
+    private List<Post> entities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postService = new PostService();
+
+        User author = new User();
+        author.setId(1L);
+        Category category = new Category();
+        category.setId(1L);
+
+        LocalDateTime now = LocalDateTime.now();
+        entities = new ArrayList<>(posts);
+        for (int i = 0; i < posts; i++) {
+            Post post = new Post();
+            post.setId((long) i);
+            post.setTitle("Post " + i);
+            post.setContent("Content for post " + i);
+            post.setAuthor(author);
+            post.setCategory(category);
+            post.setCreatedDate(now);
+            entities.add(post);
+        }
+    }
+
+    @Benchmark
+    public List<CreatePostDto> mapList() {
+        List<CreatePostDto> dtos = new ArrayList<>(entities.size());
+        for (Post post : entities) {
+            dtos.add(postService.createCreatePostDto(post));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<CreatePostDto> mapStream() {
+        return entities.stream()
+                .map(postService::createCreatePostDto)
+                .toList();
+    }
+}
@@ -0,0 +1,78 @@
+package org.sebas.blogbackendspringboot.SecurityConfig;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Picks a BCrypt cost for the current host
+ * Each cost step doubles the work, so one measurement at the minimum cost is enough to
+ * project the highest cost that still hashes within the target latency
+ */
+public final class BCryptCostCalibrator {
+
+    // Optional {bcrypt} prefix from DelegatingPasswordEncoder, then $2a$12$...
+    private static final Pattern BCRYPT_COST = Pattern.compile("^(?:\\{bcrypt})?\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private static final int SAMPLES = 3;
+
+    private BCryptCostCalibrator() {
+    }
+
+    /**
+     * A chosen cost and the projected time of one hash at that cost
+     */
+    public record Calibration(int cost, long nanosPerHash) {
+    }
+
+    /**
+     * Highest cost between minCost and maxCost whose projected hash time stays within targetMillis
+     * Never returns less than minCost, even on hardware too slow to meet the target
+     */
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        return calibration(targetMillis, minCost, maxCost).cost();
+    }
+
+    /**
+     * Same as calibrate, also returning the projected hash time so callers can report it without hashing again
+     */
+    public static Calibration calibration(long targetMillis, int minCost, int maxCost) {
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        long nanos = measureNanos(minCost);
+        int cost = minCost;
+        while (cost < maxCost && nanos * 2 <= targetNanos) {
+            cost++;
+            nanos *= 2;
+        }
+        return new Calibration(cost, nanos);
+    }
+
+    /**
+     * Median time of a single hash at the given cost, after one warm-up hash
+     */
+    public static long measureNanos(int cost) {
+        BCrypt.hashpw("calibration", BCrypt.gensalt(cost));
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", BCrypt.gensalt(cost));
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+
+    /**
+     * The cost encoded in a stored BCrypt hash, or -1 if it is not a BCrypt hash
+     */
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+}
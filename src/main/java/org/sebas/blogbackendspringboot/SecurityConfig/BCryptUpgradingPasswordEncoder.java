@@ -0,0 +1,36 @@
+package org.sebas.blogbackendspringboot.SecurityConfig;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import java.util.Map;
+
+/**
+ * DelegatingPasswordEncoder that only asks for a rehash when a stored BCrypt hash is cheaper than the current cost
+ * Plain DelegatingPasswordEncoder flags every hash without an {bcrypt} prefix, so legacy hashes at or above the
+ * calibrated cost would be rehashed on every login and then refused by MyUserDetailsService as a downgrade
+ */
+public class BCryptUpgradingPasswordEncoder extends DelegatingPasswordEncoder {
+
+    private final int cost;
+
+    public BCryptUpgradingPasswordEncoder(int cost) {
+        this(new BCryptPasswordEncoder(cost), cost);
+    }
+
+    private BCryptUpgradingPasswordEncoder(BCryptPasswordEncoder bcrypt, int cost) {
+        super("bcrypt", Map.of("bcrypt", bcrypt));
+        this.cost = cost;
+        // Hashes stored before the {bcrypt} prefix are plain BCrypt
+        setDefaultPasswordEncoderForMatches(bcrypt);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int storedCost = BCryptCostCalibrator.costOf(encodedPassword);
+        if (storedCost < 0) {
+            return super.upgradeEncoding(encodedPassword);
+        }
+        return storedCost < cost;
+    }
+}
@@ -0,0 +1,109 @@
+package org.sebas.blogbackendspringboot.SecurityConfig;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.sebas.blogbackendspringboot.exception.PasswordHashingSaturatedException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a CPU-heavy PasswordEncoder on a small fixed pool with a bounded queue, so a burst of
+ * logins or registrations occupies at most that many cores instead of every request thread.
+ * When the queue is full, or a task waits longer than the timeout, callers get a
+ * PasswordHashingSaturatedException instead of piling up behind the burst.
+ * A timeout frees the caller only: BCrypt never checks for interrupts, so a hash that already
+ * started keeps its thread until it finishes. The pool's threads bound that work, and the queue
+ * keeps filling meanwhile, so queue-capacity should allow for hashes that outlive their request
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeoutMillis) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only parses the stored hash, cheap enough for the caller's thread
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new PasswordHashingSaturatedException("Password hashing queue is full");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Drops the task if still queued, a running hash is not interruptible and finishes anyway
+            future.cancel(true);
+            rejected.incrementAndGet();
+            throw new PasswordHashingSaturatedException("Password hashing timed out after " + timeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("blog.password.hashing.queued", executor, pool -> pool.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(registry);
+        Gauge.builder("blog.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks running")
+                .register(registry);
+        Gauge.builder("blog.password.hashing.queue.remaining", executor, pool -> pool.getQueue().remainingCapacity())
+                .description("Free slots in the password hashing queue")
+                .register(registry);
+        FunctionCounter.builder("blog.password.hashing.rejected", rejected, AtomicLong::get)
+                .description("Hashing requests refused because the pool was saturated")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
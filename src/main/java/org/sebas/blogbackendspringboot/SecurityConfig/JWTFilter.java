@@ -1,16 +1,22 @@
 package org.sebas.blogbackendspringboot.SecurityConfig;
 
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.sebas.blogbackendspringboot.service.JWTService;
 import org.sebas.blogbackendspringboot.service.MyUserDetailsService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -20,8 +26,14 @@ import java.io.IOException;
 @Component
 public class JWTFilter extends OncePerRequestFilter {
 
+    static final String AUTH_METRIC = "blog.auth.jwt";
+
     private JWTService jwtService;
     private ApplicationContext context;
+    private Counter authSuccess;
+    private Counter invalidToken;
+    private Counter unknownUser;
+    private Counter rejectedToken;
 
     @Autowired
     public void setJwtService(JWTService jwtService, ApplicationContext context) {
@@ -29,21 +41,52 @@ public class JWTFilter extends OncePerRequestFilter {
         this.context = context;
     }
 
+    // Slice tests such as @WebMvcTest load this filter without a registry, fall back to the global one
+    @Autowired
+    public void setMeterRegistry(ObjectProvider<MeterRegistry> registryProvider) {
+        MeterRegistry registry = registryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        authSuccess = authCounter(registry, "success", "none");
+        invalidToken = authCounter(registry, "failure", "invalid_token");
+        unknownUser = authCounter(registry, "failure", "unknown_user");
+        rejectedToken = authCounter(registry, "failure", "rejected");
+    }
+
+    private static Counter authCounter(MeterRegistry registry, String result, String reason) {
+        return Counter.builder(AUTH_METRIC)
+                .description("Bearer token authentication attempts")
+                .tag("result", result)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
+        JWTService.VerifiedToken token = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")){
-            token = authHeader.substring(7);
-            username = jwtService.extractUsername(token);
+            // Parsed and signature-checked once per request, repeat tokens come from the cache
+            try {
+                token = jwtService.verify(authHeader.substring(7));
+            } catch (JwtException e) {
+                invalidToken.increment();
+                throw e;
+            }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null){
-            UserDetails userDetails = context.getBean(MyUserDetailsService.class).loadUserByUsername(username);
+        if (token != null && token.username() != null && SecurityContextHolder.getContext().getAuthentication() == null){
+            UserDetails userDetails;
+            try {
+                userDetails = context.getBean(MyUserDetailsService.class).loadUserByUsername(token.username());
+            } catch (UsernameNotFoundException e) {
+                unknownUser.increment();
+                throw e;
+            }
 
-            if (jwtService.validateToken(token, userDetails )){
+            if (!jwtService.validateToken(token, userDetails)){
+                rejectedToken.increment();
+            } else {
+                authSuccess.increment();
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken
                                 (userDetails, null, userDetails.getAuthorities());
@@ -0,0 +1,37 @@
+package org.sebas.blogbackendspringboot.SecurityConfig;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.sebas.blogbackendspringboot.exception.PasswordHashingSaturatedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Answers 429 when HTTP Basic authentication finds the password hashing pool saturated
+ * The provider's exception is not an AuthenticationException, so without this it leaves the
+ * security chain as a 500. Registered in the security chain only, not as a servlet filter
+ */
+public class PasswordHashingSaturationFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } catch (RuntimeException | ServletException e) {
+            PasswordHashingSaturatedException saturated = PasswordHashingSaturatedException.findIn(e);
+            if (saturated == null || response.isCommitted()) {
+                throw e;
+            }
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\": \"" + saturated.getMessage() + "\"}");
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package org.sebas.blogbackendspringboot.SecurityConfig;
 
 import org.sebas.blogbackendspringboot.service.MyUserDetailsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -12,14 +16,19 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     private MyUserDetailsService userDetailsService;
     private JWTFilter jwtFilter;
 
@@ -41,6 +50,16 @@ public class SecurityConfig {
                 .authorizeHttpRequests((authorize) -> authorize
                         .requestMatchers("/api/login", "/api/register")
                         .permitAll()
+                        // Load balancer health checks carry no credentials
+                        .requestMatchers("/actuator/health")
+                        .permitAll()
+                        // Endpoint timings, pool sizes and auth failure counts are not public.
+                        // The scraper logs in with HTTP Basic as a user holding the METRICS role
+                        .requestMatchers("/actuator/prometheus")
+                        .hasAnyRole("METRICS", "ADMIN")
+                        // A reindex reads the whole posts table
+                        .requestMatchers(HttpMethod.POST, "/api/posts/search/reindex")
+                        .hasRole("ADMIN")
                         .anyRequest().authenticated());
         http.httpBasic(Customizer.withDefaults());
         http.sessionManagement(session -> session
@@ -48,18 +67,50 @@ public class SecurityConfig {
                 .addFilterBefore(
                         jwtFilter, UsernamePasswordAuthenticationFilter.class
                 );
+        // Ahead of BasicAuthenticationFilter, which hashes the password of every Basic login
+        http.addFilterBefore(new PasswordHashingSaturationFilter(), BasicAuthenticationFilter.class);
         return http.build();
     }
 
+    /**
+     * The one password encoder used for registration and login
+     * BCrypt runs on a bounded pool, a saturated pool answers 429 instead of queueing request threads.
+     * The cost is fixed by blog.security.bcrypt.strength, or calibrated on this host when that is 0
+     */
+    @Bean
+    public BoundedPasswordEncoder passwordEncoder(@Value("${blog.security.bcrypt.strength:0}") int strength,
+                                                  @Value("${blog.security.bcrypt.target-ms:250}") long targetMillis,
+                                                  @Value("${blog.security.bcrypt.min-strength:10}") int minStrength,
+                                                  @Value("${blog.security.bcrypt.max-strength:14}") int maxStrength,
+                                                  @Value("${blog.security.hashing.threads:0}") int threads,
+                                                  @Value("${blog.security.hashing.queue-capacity:100}") int queueCapacity,
+                                                  @Value("${blog.security.hashing.timeout-ms:5000}") long timeoutMillis){
+        int cost = strength;
+        if (cost <= 0) {
+            BCryptCostCalibrator.Calibration calibration = BCryptCostCalibrator.calibration(targetMillis, minStrength, maxStrength);
+            cost = calibration.cost();
+            log.info("Calibrated BCrypt cost {} (~{} ms per hash projected, target {} ms)", cost,
+                    TimeUnit.NANOSECONDS.toMillis(calibration.nanosPerHash()), targetMillis);
+        }
+
+        // Hashes below the current cost are rehashed by the provider on the next login
+        BCryptUpgradingPasswordEncoder delegating = new BCryptUpgradingPasswordEncoder(cost);
+
+        // 0 threads means half the cores, leaving the rest for everything else
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(delegating, poolSize, queueCapacity, timeoutMillis);
+    }
+
     /**
      * Configure authentication provider
      * Sets up password encoder and user details service
      */
     @Bean
-    public AuthenticationProvider authenticationProvider(){
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder){
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setPasswordEncoder(new BCryptPasswordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
         provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
         return provider;
     }
 
@@ -0,0 +1,51 @@
+package org.sebas.blogbackendspringboot.controller;
+
+import org.sebas.blogbackendspringboot.dto.ImportReportDto;
+import org.sebas.blogbackendspringboot.service.PostExportService;
+import org.sebas.blogbackendspringboot.service.PostImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api")
+public class BulkPostController {
+
+    private PostExportService exportService;
+    private PostImportService importService;
+
+    @Autowired
+    public void setServices(PostExportService exportService, PostImportService importService){
+        this.exportService = exportService;
+        this.importService = importService;
+    }
+
+    /**
+     * Export every post as newline-delimited JSON
+     * The body is streamed straight to the client, one post per line
+     */
+    @GetMapping(value = "/posts/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPosts(){
+        StreamingResponseBody body = outputStream -> exportService.exportPosts(outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Import posts from newline-delimited JSON, one CreatePostDto per line
+     * Returns throughput and the errors for any rejected lines
+     */
+    @PostMapping(value = "/posts/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportReportDto> importPosts(InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importPosts(body));
+    }
+}
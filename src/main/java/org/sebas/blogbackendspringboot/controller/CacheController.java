@@ -0,0 +1,38 @@
+package org.sebas.blogbackendspringboot.controller;
+
+import org.sebas.blogbackendspringboot.dto.CacheStatsDto;
+import org.sebas.blogbackendspringboot.service.CategoryPageCache;
+import org.sebas.blogbackendspringboot.service.MyUserDetailsService;
+import org.sebas.blogbackendspringboot.service.PostDtoCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class CacheController {
+
+    private PostDtoCache postDtoCache;
+    private MyUserDetailsService userDetailsService;
+    private CategoryPageCache categoryPageCache;
+
+    @Autowired
+    public void setCaches(PostDtoCache postDtoCache, MyUserDetailsService userDetailsService,
+                          CategoryPageCache categoryPageCache){
+        this.postDtoCache = postDtoCache;
+        this.userDetailsService = userDetailsService;
+        this.categoryPageCache = categoryPageCache;
+    }
+
+    /**
+     * Get hit, miss and eviction counters for the in-process caches
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<List<CacheStatsDto>> getCacheStats(){
+        return ResponseEntity.ok(List.of(postDtoCache.stats(), userDetailsService.stats(), categoryPageCache.stats()));
+    }
+}
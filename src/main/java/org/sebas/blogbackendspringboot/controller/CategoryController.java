@@ -0,0 +1,33 @@
+package org.sebas.blogbackendspringboot.controller;
+
+import org.sebas.blogbackendspringboot.service.PostService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api")
+public class CategoryController {
+
+    private PostService postService;
+
+    @Autowired
+    public void setPostService(PostService postService){
+        this.postService = postService;
+    }
+
+    /**
+     * Get the posts in a category one page at a time, newest first
+     * Pass the returned nextCursor back to fetch the following page
+     */
+    @GetMapping("/categories/{id}/posts")
+    public ResponseEntity<?> getCategoryPosts(@PathVariable Long id,
+                                              @RequestParam(value = "cursor", required = false) String cursor,
+                                              @RequestParam(value = "size", required = false) Integer size){
+        return postService.getCategoryPostsPage(id, cursor, size);
+    }
+}
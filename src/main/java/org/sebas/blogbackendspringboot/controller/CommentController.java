@@ -1,12 +1,14 @@
 package org.sebas.blogbackendspringboot.controller;
 
 import jakarta.validation.Valid;
+import org.sebas.blogbackendspringboot.dto.BulkCreateCommentDto;
 import org.sebas.blogbackendspringboot.dto.CommentDto;
 import org.sebas.blogbackendspringboot.dto.CreateCommentDto;
 import org.sebas.blogbackendspringboot.service.CommentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,8 +27,32 @@ public class CommentController {
         return service.addComment(postId, createCommentDto);
     }
 
+    /**
+     * Add many comments to a post in one request
+     * Meant for importers, inserts are batched
+     */
+    @PostMapping("/posts/{postId}/comments/bulk")
+    public ResponseEntity<?> addComments(@PathVariable Long postId, @Valid @RequestBody BulkCreateCommentDto bulkCreateCommentDto){
+        return service.addComments(postId, bulkCreateCommentDto);
+    }
+
+    /**
+     * Get every comment for a post
+     * Supports If-None-Match and If-Modified-Since, answering 304 when the client copy is current
+     */
     @GetMapping("/posts/{postId}/comments")
-    public ResponseEntity<List<CommentDto>> getComments(@PathVariable Long postId){
-        return service.getComments(postId);
+    public ResponseEntity<List<CommentDto>> getComments(@PathVariable Long postId, WebRequest request){
+        return service.getComments(postId, request);
+    }
+
+    /**
+     * Get comments for a post one page at a time, oldest first
+     * Pass the returned nextCursor back to fetch the following page
+     */
+    @GetMapping("/posts/{postId}/comments/page")
+    public ResponseEntity<?> getCommentsPage(@PathVariable Long postId,
+                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                             @RequestParam(value = "size", required = false) Integer size){
+        return service.getCommentsPage(postId, cursor, size);
     }
 }
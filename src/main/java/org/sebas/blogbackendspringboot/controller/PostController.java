@@ -2,13 +2,17 @@ package org.sebas.blogbackendspringboot.controller;
 
 import jakarta.validation.Valid;
 import org.sebas.blogbackendspringboot.dto.CreatePostDto;
+import org.sebas.blogbackendspringboot.dto.PostSummaryDto;
 import org.sebas.blogbackendspringboot.model.Post;
 import org.sebas.blogbackendspringboot.service.PostService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping( "/api")
@@ -26,19 +30,46 @@ public class PostController {
         return service.getPostsList();
     }
 
+    /**
+     * Get posts one page at a time, newest first
+     * Pass the returned nextCursor back to fetch the following page
+     */
+    @GetMapping("/posts/page")
+    public ResponseEntity<?> getPostsPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                          @RequestParam(value = "size", required = false) Integer size){
+        return service.getPostsPage(cursor, size);
+    }
+
+    /**
+     * Get the hottest posts by recent comment activity and age, best first
+     */
+    @GetMapping("/posts/trending")
+    public ResponseEntity<List<PostSummaryDto>> getTrendingPosts(@RequestParam(value = "limit", required = false) Integer limit){
+        return service.getTrendingPosts(limit);
+    }
+
     @PostMapping("/posts")
     public ResponseEntity<?> createPost(@Valid @RequestBody CreatePostDto createPostDto){
         return service.createPost(createPostDto);
     }
 
+    /**
+     * Get a post by ID
+     * Supports If-None-Match and If-Modified-Since, answering 304 when the client copy is current
+     */
     @GetMapping("/posts/{id}")
-    public ResponseEntity<CreatePostDto> getPostById(@PathVariable long id){
-        return service.getPostById(id);
+    public ResponseEntity<CreatePostDto> getPostById(@PathVariable long id, WebRequest request){
+        return service.getPostById(id, request);
     }
 
+    /**
+     * Update a post
+     * Send the ETag from GET /posts/{id} as If-Match to get 412 instead of overwriting someone else's edit
+     */
     @PutMapping("/posts/{id}")
-    public ResponseEntity<?> updatePost(@PathVariable Long id, @Valid @RequestBody CreatePostDto updatedPostDto){
-        return service.updatePost(id,updatedPostDto);
+    public ResponseEntity<?> updatePost(@PathVariable Long id, @Valid @RequestBody CreatePostDto updatedPostDto,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        return service.updatePost(id, updatedPostDto, ifMatch);
     }
 
     @DeleteMapping("/posts/{id}")
@@ -47,12 +78,24 @@ public class PostController {
     }
 
     /**
-     * Search posts by title
-     * Returns posts matching the title parameter
+     * Search posts through the full-text index
+     * Use title to match titles only, or query to match title and content
      */
     @GetMapping("/posts/search")
-    public ResponseEntity<List<CreatePostDto>> searchPostByTitle(@RequestParam(value = "title") String title){
-        return service.searchPostByTitle(title);
+    public ResponseEntity<?> searchPosts(@RequestParam(value = "title", required = false) String title,
+                                         @RequestParam(value = "query", required = false) String query,
+                                         @RequestParam(value = "page", required = false) Integer page,
+                                         @RequestParam(value = "size", required = false) Integer size){
+        return service.searchPosts(title, query, page, size);
+    }
+
+    /**
+     * Rebuild the search index from the database
+     * Admins only, see SecurityConfig
+     */
+    @PostMapping("/posts/search/reindex")
+    public ResponseEntity<Map<String, Long>> rebuildSearchIndex(){
+        return ResponseEntity.ok(Map.of("indexed", service.rebuildSearchIndex()));
     }
 
     /**
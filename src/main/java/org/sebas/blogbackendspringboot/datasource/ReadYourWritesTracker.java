@@ -0,0 +1,51 @@
+package org.sebas.blogbackendspringboot.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Remembers which users wrote recently so their reads can stay on the primary
+ * A replica lags the primary by a little; for the window after a write, that user's read-only
+ * transactions use the primary and see their own change. Other users keep reading from the replica.
+ * Held per instance, so the window only covers requests that reach the same instance
+ */
+public class ReadYourWritesTracker {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window, long maxUsers) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxUsers)
+                .build();
+    }
+
+    /**
+     * Start or extend the window for the current user, anonymous requests are ignored
+     */
+    public void recordWrite() {
+        String username = currentUsername();
+        if (username != null) {
+            recentWriters.put(username, Boolean.TRUE);
+        }
+    }
+
+    public boolean isSticky() {
+        String username = currentUsername();
+        return username != null && recentWriters.getIfPresent(username) != null;
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,114 @@
+package org.sebas.blogbackendspringboot.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Primary and replica pools, active once blog.datasource.replica.url is set
+ * The application DataSource is a LazyConnectionDataSourceProxy over the primary: it only fetches a
+ * real connection on the first statement, after the transaction is marked read-only or not, so
+ * @Transactional(readOnly = true) service methods get a replica connection and everything else
+ * the primary. Without a replica url Boot's single pool is used as before
+ */
+@Configuration
+@ConditionalOnProperty("blog.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties primaryDataSourceProperties) {
+        return primaryDataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("blog.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("blog.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        // Defaults, blog.datasource.replica.hikari.* overrides them
+        replica.setPoolName("blog-mysql-replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(@Value("${blog.datasource.replica.sticky-window-ms:5000}") long stickyWindowMillis,
+                                                       @Value("${blog.datasource.replica.sticky-max-users:100000}") long maxUsers) {
+        return new ReadYourWritesTracker(Duration.ofMillis(stickyWindowMillis), maxUsers);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadYourWritesTracker tracker) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replica, tracker));
+        return dataSource;
+    }
+
+    /**
+     * Starts the read-your-writes window for the user behind every request that can write
+     * Marked before the handler runs and again after it, so the window covers the whole request
+     * plus the replication lag that follows it
+     */
+    @Bean
+    public WebMvcConfigurer readYourWritesConfigurer(ReadYourWritesTracker tracker) {
+        HandlerInterceptor interceptor = new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (isWrite(request)) {
+                    tracker.recordWrite();
+                }
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                if (isWrite(request)) {
+                    tracker.recordWrite();
+                }
+            }
+        };
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor);
+            }
+        };
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        return !(HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method));
+    }
+}
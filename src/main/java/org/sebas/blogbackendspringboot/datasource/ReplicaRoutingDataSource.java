@@ -0,0 +1,30 @@
+package org.sebas.blogbackendspringboot.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Target for read-only connections: the replica, or the primary while the current user is
+ * inside their read-your-writes window
+ * Writes never get here, LazyConnectionDataSourceProxy only asks it for read-only connections
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReadYourWritesTracker tracker;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(replica);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return tracker.isSticky() ? Target.PRIMARY : Target.REPLICA;
+    }
+}
@@ -0,0 +1,21 @@
+package org.sebas.blogbackendspringboot.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkCreateCommentDto {
+
+    @Valid
+    @NotEmpty(message = "At least one comment is required")
+    @Size(max = 1000, message = "A bulk request can contain at most 1000 comments")
+    private List<CreateCommentDto> comments;
+}
@@ -0,0 +1,37 @@
+package org.sebas.blogbackendspringboot.dto;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStatsDto {
+    private String name;
+
+    private long size;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    private double hitRate;
+
+    // Snapshot the counters of a cache built with recordStats()
+    public static CacheStatsDto from(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(
+                name,
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                stats.hitRate()
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package org.sebas.blogbackendspringboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentPageDto {
+    private List<CommentDto> comments;
+
+    // Null when there are no more comments to fetch
+    private String nextCursor;
+}
@@ -0,0 +1,10 @@
+package org.sebas.blogbackendspringboot.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * How many comments a post has and when the newest change happened
+ * Enough to tell whether a client's copy of the comment list is still current
+ */
+public record CommentSetVersion(Long count, LocalDateTime lastModified) {
+}
@@ -1,5 +1,6 @@
 package org.sebas.blogbackendspringboot.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -25,4 +26,18 @@ public class CreatePostDto {
     
     @NotNull(message = "Category ID is required")
     private Long categoryId;
+
+    // Output only, maintained by the server and ignored when a client sends it
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long commentCount;
+
+    // Output only, approximate: the count as of the last flush when the post was loaded. The post
+    // cache keeps it until blog.cache.posts.ttl-seconds or the next edit or comment, and a flush
+    // changes neither the ETag nor Last-Modified, so 304 answers also keep the client's older count
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long viewCount;
+
+    public CreatePostDto(String title, String content, Long authorId, Long categoryId) {
+        this(title, content, authorId, categoryId, 0, 0);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,15 @@
+package org.sebas.blogbackendspringboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportErrorDto {
+    // 1-based line number in the uploaded file
+    private long line;
+
+    private String message;
+}
@@ -0,0 +1,26 @@
+package org.sebas.blogbackendspringboot.dto;
+
+import jakarta.validation.constraints.PastOrPresent;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of POST /api/posts/import
+ * createdDate is optional. Lines written by GET /api/posts/export carry it, so re-imported posts keep their date
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class ImportPostDto extends CreatePostDto {
+
+    @PastOrPresent(message = "Created date must not be in the future")
+    private LocalDateTime createdDate;
+
+    public ImportPostDto(String title, String content, Long authorId, Long categoryId, LocalDateTime createdDate) {
+        super(title, content, authorId, categoryId);
+        this.createdDate = createdDate;
+    }
+}
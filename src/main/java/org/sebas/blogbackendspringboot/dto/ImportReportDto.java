@@ -0,0 +1,25 @@
+package org.sebas.blogbackendspringboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportReportDto {
+    private long processed;
+
+    private long imported;
+
+    private long failed;
+
+    private long elapsedMillis;
+
+    private double postsPerSecond;
+
+    // Capped, failed holds the full count
+    private List<ImportErrorDto> errors;
+}
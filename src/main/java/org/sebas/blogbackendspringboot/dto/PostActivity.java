@@ -0,0 +1,9 @@
+package org.sebas.blogbackendspringboot.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A post being published or commented on, the events the trending ranking is rebuilt from
+ */
+public record PostActivity(Long postId, LocalDateTime at) {
+}
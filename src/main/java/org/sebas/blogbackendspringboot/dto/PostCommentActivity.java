@@ -0,0 +1,7 @@
+package org.sebas.blogbackendspringboot.dto;
+
+/**
+ * A post's comments inside the trending window, each decayed to the same moment and summed by the database
+ */
+public record PostCommentActivity(Long postId, Double decayedCount) {
+}
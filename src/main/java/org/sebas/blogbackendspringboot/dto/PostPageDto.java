@@ -0,0 +1,17 @@
+package org.sebas.blogbackendspringboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostPageDto {
+    private List<PostSummaryDto> posts;
+
+    // Null when there are no more posts to fetch
+    private String nextCursor;
+}
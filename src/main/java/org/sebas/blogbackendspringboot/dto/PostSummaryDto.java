@@ -0,0 +1,35 @@
+package org.sebas.blogbackendspringboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostSummaryDto {
+    private Long id;
+
+    private String title;
+
+    private String content;
+
+    private Long authorId;
+
+    private Long categoryId;
+
+    private LocalDateTime createdDate;
+
+    private long commentCount;
+
+    // Resolved from CategoryCatalog after loading, not selected by the queries
+    private String categoryName;
+
+    // Used by the JPQL projections in PostRepo
+    public PostSummaryDto(Long id, String title, String content, Long authorId, Long categoryId,
+                          LocalDateTime createdDate, long commentCount) {
+        this(id, title, content, authorId, categoryId, createdDate, commentCount, null);
+    }
+}
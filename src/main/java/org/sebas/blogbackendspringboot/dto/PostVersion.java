@@ -0,0 +1,10 @@
+package org.sebas.blogbackendspringboot.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A post's optimistic-lock version, comment count and last change time
+ * Enough to answer conditional requests without loading the post
+ */
+public record PostVersion(Long version, Long commentCount, LocalDateTime lastModified) {
+}
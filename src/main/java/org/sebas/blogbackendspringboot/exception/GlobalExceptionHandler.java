@@ -1,7 +1,10 @@
 package org.sebas.blogbackendspringboot.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -29,6 +32,40 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errors);
     }
 
+    /**
+     * Handles a saturated password hashing pool
+     * Returns 429 so clients back off and retry the login or registration
+     */
+    @ExceptionHandler(PasswordHashingSaturatedException.class)
+    public ResponseEntity<Map<String, String>> handlePasswordHashingSaturated(PasswordHashingSaturatedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
+    /**
+     * Handles an authentication that failed inside the provider, e.g. /api/login for an unknown user
+     * The provider wraps a saturated hashing pool in this exception, that case still answers 429
+     */
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<Map<String, String>> handleInternalAuthenticationFailure(InternalAuthenticationServiceException ex) {
+        PasswordHashingSaturatedException saturated = PasswordHashingSaturatedException.findIn(ex);
+        return saturated != null ? handlePasswordHashingSaturated(saturated) : handleGenericException(ex);
+    }
+
+    /**
+     * Handles a write that lost a race with a concurrent update of the same entity
+     * Returns 409 so the client refetches and retries its change
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "The resource was modified concurrently, fetch it again and retry");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     /**
      * Handles generic exceptions
      * Returns a generic error message
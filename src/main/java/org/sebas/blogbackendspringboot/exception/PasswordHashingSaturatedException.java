@@ -0,0 +1,27 @@
+package org.sebas.blogbackendspringboot.exception;
+
+/**
+ * Thrown when the password hashing pool cannot take more work
+ * Mapped to 429 Too Many Requests by GlobalExceptionHandler, and by PasswordHashingSaturationFilter
+ * on the HTTP Basic login path, which runs before any controller
+ */
+public class PasswordHashingSaturatedException extends RuntimeException {
+
+    public PasswordHashingSaturatedException(String message) {
+        super(message);
+    }
+
+    /**
+     * The saturation behind an exception, Spring Security wraps it when a user lookup is involved
+     *
+     * @return the exception found in the cause chain, or null
+     */
+    public static PasswordHashingSaturatedException findIn(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PasswordHashingSaturatedException saturated) {
+                return saturated;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,129 @@
+package org.sebas.blogbackendspringboot.metrics;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * Watches the Hikari pool next to the request thread count
+ * Hikari publishes its own hikaricp.connections.* meters (acquire wait, usage, pending, timeouts);
+ * this adds the pool utilisation ratio, reports the sizing against Tomcat on startup and, when
+ * blog.datasource.adaptive.enabled is set, grows the pool while requests queue for a connection
+ * and shrinks it back to the configured size once they stop
+ */
+@Component
+public class ConnectionPoolMonitor implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolMonitor.class);
+
+    private final HikariDataSource pool;
+    private final int requestThreads;
+    private final boolean adaptive;
+    private final int baselineSize;
+    private final int adaptiveMaxSize;
+    private final int step;
+    private final int idleSamplesBeforeShrink;
+    private int idleSamples;
+
+    public ConnectionPoolMonitor(DataSource dataSource,
+                                 @Value("${server.tomcat.threads.max:200}") int requestThreads,
+                                 @Value("${blog.datasource.adaptive.enabled:false}") boolean adaptive,
+                                 @Value("${blog.datasource.adaptive.max-pool-size:0}") int adaptiveMaxSize,
+                                 @Value("${blog.datasource.adaptive.step:2}") int step,
+                                 @Value("${blog.datasource.adaptive.idle-samples-before-shrink:12}") int idleSamplesBeforeShrink) {
+        this.pool = unwrap(dataSource);
+        this.requestThreads = requestThreads;
+        this.adaptive = adaptive && pool != null;
+        this.baselineSize = pool == null ? 0 : pool.getMaximumPoolSize();
+        // 0 = twice the configured size, keep it under the database's max_connections divided by instances
+        this.adaptiveMaxSize = adaptiveMaxSize > 0 ? adaptiveMaxSize : baselineSize * 2;
+        this.step = step;
+        this.idleSamplesBeforeShrink = idleSamplesBeforeShrink;
+    }
+
+    private static HikariDataSource unwrap(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportSizing() {
+        if (pool == null) {
+            return;
+        }
+        log.info("Connection pool {}: {} connections for {} request threads, connection-timeout {} ms, leak detection {}",
+                pool.getPoolName(), pool.getMaximumPoolSize(), requestThreads, pool.getConnectionTimeout(),
+                pool.getLeakDetectionThreshold() > 0 ? pool.getLeakDetectionThreshold() + " ms" : "off");
+        if (pool.getLeakDetectionThreshold() == 0) {
+            log.warn("Leak detection is off, set spring.datasource.hikari.leak-detection-threshold to find unreturned connections");
+        }
+    }
+
+    /**
+     * Grow or shrink the pool from one sample of its load
+     * Growth is immediate while threads wait; shrinking needs that many consecutive samples under half use,
+     * surplus connections close as Hikari retires them
+     */
+    @Scheduled(fixedDelayString = "${blog.datasource.adaptive.interval-ms:5000}")
+    public synchronized void adjust() {
+        HikariPoolMXBean stats = adaptive ? pool.getHikariPoolMXBean() : null;
+        if (stats == null) {
+            return;
+        }
+        HikariConfigMXBean config = pool.getHikariConfigMXBean();
+        int size = config.getMaximumPoolSize();
+        int waiting = stats.getThreadsAwaitingConnection();
+
+        if (waiting > 0) {
+            idleSamples = 0;
+            int grown = Math.min(adaptiveMaxSize, size + Math.max(step, waiting));
+            if (grown > size) {
+                config.setMaximumPoolSize(grown);
+                log.info("{} threads waiting for a connection, pool {} grown from {} to {}", waiting, pool.getPoolName(), size, grown);
+            }
+        } else if (size > baselineSize && stats.getActiveConnections() * 2 < size) {
+            if (++idleSamples >= idleSamplesBeforeShrink) {
+                idleSamples = 0;
+                int shrunk = Math.max(baselineSize, size - step);
+                config.setMaximumPoolSize(shrunk);
+                log.info("Pool {} shrunk from {} to {}", pool.getPoolName(), size, shrunk);
+            }
+        } else {
+            idleSamples = 0;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (pool == null) {
+            return;
+        }
+        Gauge.builder("blog.db.pool.utilization", pool, ConnectionPoolMonitor::utilization)
+                .description("Active connections as a fraction of the pool's maximum size")
+                .tag("pool", Objects.requireNonNullElse(pool.getPoolName(), "default"))
+                .register(registry);
+    }
+
+    private static double utilization(HikariDataSource pool) {
+        HikariPoolMXBean stats = pool.getHikariPoolMXBean();
+        int size = pool.getHikariConfigMXBean().getMaximumPoolSize();
+        return stats == null || size == 0 ? 0 : (double) stats.getActiveConnections() / size;
+    }
+}
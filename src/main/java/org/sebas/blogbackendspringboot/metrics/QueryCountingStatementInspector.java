@@ -0,0 +1,16 @@
+package org.sebas.blogbackendspringboot.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares, registered through
+ * hibernate.session_factory.statement_inspector
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryStats.statementPrepared(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,97 @@
+package org.sebas.blogbackendspringboot.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statements and database time for the request bound to the current thread
+ * Hibernate instantiates the inspector and session listener that feed this class itself,
+ * so they reach it through static state rather than Spring injection.
+ * Only the request thread is covered: statements run on other threads, such as the async
+ * NDJSON export, are not counted
+ */
+public final class QueryStats {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryStats.class);
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    // SQL prepared on this thread and not executed yet, so a slow execution can be logged with its
+    // statement. Cleared by the execution, so scheduler and import threads never keep a statement
+    private static final ThreadLocal<String> LAST_SQL = new ThreadLocal<>();
+
+    private static volatile long slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(200);
+
+    // 0 disables the budget
+    private static volatile int statementBudget;
+    private static volatile boolean failOnBudgetExceeded;
+
+    private final String request;
+    private int statements;
+    private long dbNanos;
+
+    private QueryStats(String request) {
+        this.request = request;
+    }
+
+    static QueryStats begin(String request) {
+        QueryStats stats = new QueryStats(request);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+        LAST_SQL.remove();
+    }
+
+    static void setSlowQueryThreshold(long millis) {
+        slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    static void setStatementBudget(int budget, boolean failWhenExceeded) {
+        statementBudget = budget;
+        failOnBudgetExceeded = failWhenExceeded;
+    }
+
+    /**
+     * Count a statement for the current request
+     * In fail mode the statement that goes over the budget throws, so the request fails with an
+     * error response instead of completing and being flagged after its body was sent
+     */
+    static void statementPrepared(String sql) {
+        LAST_SQL.set(sql);
+        QueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return;
+        }
+        stats.statements++;
+        // Only the first statement over the budget throws, error handling may run more
+        if (failOnBudgetExceeded && statementBudget > 0 && stats.statements == statementBudget + 1) {
+            throw new IllegalStateException(stats.request + " ran more than " + statementBudget
+                    + " statements, last: " + sql);
+        }
+    }
+
+    static void statementExecuted(long elapsedNanos) {
+        String sql = LAST_SQL.get();
+        LAST_SQL.remove();
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.dbNanos += elapsedNanos;
+        }
+        if (elapsedNanos >= slowQueryThresholdNanos) {
+            log.warn("Slow query ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), sql);
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getDbNanos() {
+        return dbNanos;
+    }
+}
@@ -0,0 +1,99 @@
+package org.sebas.blogbackendspringboot.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a QueryStats scope around each request, ahead of the security filters so the
+ * user lookup is counted too, and reports statements and DB time per endpoint pattern
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryStatsFilter.class);
+
+    private MeterRegistry registry;
+
+    private int statementBudget;
+    private boolean failOnBudgetExceeded;
+
+    @Autowired
+    public void setMeterRegistry(ObjectProvider<MeterRegistry> registryProvider) {
+        this.registry = registryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    @Value("${blog.query-stats.slow-query-threshold-ms:200}")
+    public void setSlowQueryThreshold(long millis) {
+        QueryStats.setSlowQueryThreshold(millis);
+    }
+
+    /**
+     * Budget of statements per request, 0 disables it
+     * Exceeding it is logged, or in fail mode fails the request at the offending statement
+     */
+    @Autowired
+    public void setStatementBudget(@Value("${blog.query-stats.statement-budget:0}") int statementBudget,
+                                   @Value("${blog.query-stats.fail-on-budget-exceeded:false}") boolean failOnBudgetExceeded) {
+        this.statementBudget = statementBudget;
+        this.failOnBudgetExceeded = failOnBudgetExceeded;
+        QueryStats.setStatementBudget(statementBudget, failOnBudgetExceeded);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        QueryStats stats = QueryStats.begin(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryStats.end();
+        }
+
+        // Set by the handler mapping, e.g. /api/posts/{postId}/comments. Unmatched requests share one tag
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern != null ? pattern.toString() : "UNKNOWN";
+        record(request.getMethod(), endpoint, stats);
+
+        // In fail mode the request already failed at the statement that went over
+        if (!failOnBudgetExceeded && statementBudget > 0 && stats.getStatements() > statementBudget) {
+            log.warn("{} {} ran {} statements, budget is {}", request.getMethod(), endpoint,
+                    stats.getStatements(), statementBudget);
+        }
+    }
+
+    private void record(String method, String endpoint, QueryStats stats) {
+        DistributionSummary.builder("blog.db.statements")
+                .description("SQL statements per request")
+                .tag("method", method)
+                .tag("uri", endpoint)
+                .register(registry)
+                .record(stats.getStatements());
+        Timer.builder("blog.db.time")
+                .description("JDBC execution time per request")
+                .tag("method", method)
+                .tag("uri", endpoint)
+                .register(registry)
+                .record(stats.getDbNanos(), TimeUnit.NANOSECONDS);
+        log.debug("{} {}: {} statements, {} ms in the database", method, endpoint, stats.getStatements(),
+                TimeUnit.NANOSECONDS.toMillis(stats.getDbNanos()));
+    }
+}
@@ -0,0 +1,32 @@
+package org.sebas.blogbackendspringboot.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Measures JDBC execution time, registered through hibernate.session.events.auto
+ * Hibernate creates one instance per session, and a session is only used by one thread at a time
+ */
+public class QueryTimingSessionListener extends BaseSessionEventListener {
+
+    private long executionStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryStats.statementExecuted(System.nanoTime() - executionStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryStats.statementExecuted(System.nanoTime() - executionStart);
+    }
+}
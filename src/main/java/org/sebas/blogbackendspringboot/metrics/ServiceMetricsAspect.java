@@ -0,0 +1,48 @@
+package org.sebas.blogbackendspringboot.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of a @Service bean as blog.service.invocations, tagged by class,
+ * method and thrown exception. Repository calls are timed by Spring Boot's own
+ * spring.data.repository.invocations metric, so together they split latency per layer
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    public static final String METRIC_NAME = "blog.service.invocations";
+
+    private MeterRegistry registry;
+
+    @Autowired
+    public void setRegistry(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("@within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            // Histogram buckets come from management.metrics.distribution.percentiles-histogram
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("Latency of public service methods")
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+}
@@ -5,7 +5,8 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Null;
 import jakarta.validation.constraints.Size;
 import lombok.*;
-import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 
 import java.time.LocalDateTime;
@@ -16,10 +17,16 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_post_created_date_id", columnList = "created_date, id"),
+        @Index(name = "idx_post_category_created_date_id", columnList = "category_id, created_date, id")
+})
 public class Post {
 
+    // allocationSize matches hibernate.jdbc.batch_size
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_seq")
+    @SequenceGenerator(name = "post_seq", sequenceName = "post_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Title is required")
@@ -30,9 +37,29 @@ public class Post {
     @Size(min = 10, message = "Content must be at least 10 characters")
     private String content;
 
-    @CreationTimestamp  //TODO: Test if this works or i have to do the auditingjpa
+    // Assigned by the services, the import keeps a record's original date. Defaults to now on insert
     private LocalDateTime createdDate;
 
+    // Set on every insert and update, drives the Last-Modified of GET /api/posts/{id}
+    @UpdateTimestamp
+    private LocalDateTime updatedDate;
+
+    // Optimistic lock, concurrent updates of the same version fail instead of overwriting each other.
+    // Also the post's ETag
+    @Version
+    private long version;
+
+    // Maintained by atomic UPDATEs in PostRepo, never written from the entity so a post edit
+    // cannot overwrite a concurrent increment. PostService.reconcileCommentCounts repairs drift
+    @ColumnDefault("0")
+    @Column(insertable = false, updatable = false)
+    private long commentCount;
+
+    // Written only by PostViewCounter's batched flushes, reads count views in memory
+    @ColumnDefault("0")
+    @Column(insertable = false, updatable = false)
+    private long viewCount;
+
     @ManyToOne
     @JoinColumn(name = "author_id")
     private User author;
@@ -44,4 +71,11 @@ public class Post {
 
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL)
     private List<Comment> comments;
+
+    @PrePersist
+    void defaultCreatedDate() {
+        if (createdDate == null) {
+            createdDate = LocalDateTime.now();
+        }
+    }
 }
@@ -4,8 +4,9 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 
 public class UserPrincipal implements UserDetails {
 
@@ -15,9 +16,20 @@ public class UserPrincipal implements UserDetails {
         this.user = user;
     }
 
+    /**
+     * Every user holds the User authority, plus ROLE_<name> for each stored role so hasRole() checks work
+     */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Collections.singleton(new SimpleGrantedAuthority("User"));
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("User"));
+        if (user.getRole() != null) {
+            for (Role role : user.getRole()) {
+                String name = role.getName();
+                authorities.add(new SimpleGrantedAuthority(name.startsWith("ROLE_") ? name : "ROLE_" + name));
+            }
+        }
+        return authorities;
     }
 
     @Override
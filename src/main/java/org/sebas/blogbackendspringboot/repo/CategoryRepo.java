@@ -4,6 +4,10 @@ import org.sebas.blogbackendspringboot.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CategoryRepo extends JpaRepository<Category, Long> {
+    // Ordered so CategoryCatalog can binary search the ids without sorting
+    List<Category> findAllByOrderByIdAsc();
 } 
\ No newline at end of file
@@ -1,11 +1,44 @@
 package org.sebas.blogbackendspringboot.repo;
 
+import org.sebas.blogbackendspringboot.dto.CommentDto;
+import org.sebas.blogbackendspringboot.dto.CommentSetVersion;
+import org.sebas.blogbackendspringboot.dto.PostCommentActivity;
 import org.sebas.blogbackendspringboot.model.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 @Repository
 public interface CommentRepo extends JpaRepository<Comment, Long> {
     List<Comment> findByPostId(Long id);
+
+    // DTO projections join only the author's username, ordered oldest first on the (post_id, created_at, id) index
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.CommentDto(c.id, c.content, c.createdAt, u.username, c.post.id) " +
+            "FROM Comment c JOIN c.user u WHERE c.post.id = :postId ORDER BY c.createdAt, c.id")
+    List<CommentDto> findDtosByPostId(Long postId);
+
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.CommentDto(c.id, c.content, c.createdAt, u.username, c.post.id) " +
+            "FROM Comment c JOIN c.user u WHERE c.post.id = :postId ORDER BY c.createdAt, c.id")
+    List<CommentDto> findFirstPage(Long postId, Pageable pageable);
+
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.CommentDto(c.id, c.content, c.createdAt, u.username, c.post.id) " +
+            "FROM Comment c JOIN c.user u WHERE c.post.id = :postId " +
+            "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+            "ORDER BY c.createdAt, c.id")
+    List<CommentDto> findPageAfter(Long postId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    // Comment activity inside the trending window, replayed into TrendingPostRanking on startup.
+    // One row per post: each comment counts exp(decayPerSecond * (createdAt - now) in seconds)
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.PostCommentActivity(c.post.id, " +
+            "SUM(EXP(CAST((c.createdAt - :now) BY SECOND AS Double) * :decayPerSecond))) " +
+            "FROM Comment c WHERE c.createdAt >= :since GROUP BY c.post.id")
+    List<PostCommentActivity> findDecayedActivitySince(LocalDateTime since, LocalDateTime now, double decayPerSecond);
+
+    // One aggregate over the post_id index, answers conditional GETs without reading the comments
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.CommentSetVersion(COUNT(c), MAX(COALESCE(c.updatedAt, c.createdAt))) " +
+            "FROM Comment c WHERE c.post.id = :postId")
+    CommentSetVersion findVersionByPostId(Long postId);
 }
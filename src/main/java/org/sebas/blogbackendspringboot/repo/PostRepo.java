@@ -1,16 +1,101 @@
 package org.sebas.blogbackendspringboot.repo;
 
+import org.sebas.blogbackendspringboot.dto.CreatePostDto;
+import org.sebas.blogbackendspringboot.dto.PostActivity;
+import org.sebas.blogbackendspringboot.dto.PostSummaryDto;
+import org.sebas.blogbackendspringboot.dto.PostVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.sebas.blogbackendspringboot.model.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * List queries project straight into DTOs and read author/category ids from the
+ * foreign key columns, so a list call is a single select regardless of row count
+ */
 @Repository
 public interface PostRepo extends JpaRepository<Post, Long> {
-    @Query("SELECT p FROM Post p WHERE LOWER(p.title) LIKE LOWER(CONCAT('%', :title, '%'))")
-    List<Post> searchByTitle(String title);
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.CreatePostDto(p.title, p.content, p.author.id, p.category.id, p.commentCount, p.viewCount) " +
+            "FROM Post p")
+    List<CreatePostDto> findAllPostDtos();
 
-    List<Post> searchPostByAuthorId(Long id);
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.CreatePostDto(p.title, p.content, p.author.id, p.category.id, p.commentCount, p.viewCount) " +
+            "FROM Post p WHERE LOWER(p.title) LIKE LOWER(CONCAT('%', :title, '%'))")
+    List<CreatePostDto> searchByTitle(String title);
+
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.CreatePostDto(p.title, p.content, p.author.id, p.category.id, p.commentCount, p.viewCount) " +
+            "FROM Post p WHERE p.author.id = :id")
+    List<CreatePostDto> searchPostByAuthorId(Long id);
+
+    // Rows written before updatedDate existed fall back to their creation time
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.PostVersion(p.version, p.commentCount, COALESCE(p.updatedDate, p.createdDate)) " +
+            "FROM Post p WHERE p.id = :id")
+    Optional<PostVersion> findVersionById(Long id);
+
+    // Keyset pagination, newest first. Both queries walk the (created_date, id) index
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.PostSummaryDto(" +
+            "p.id, p.title, p.content, p.author.id, p.category.id, p.createdDate, p.commentCount) " +
+            "FROM Post p ORDER BY p.createdDate DESC, p.id DESC")
+    List<PostSummaryDto> findFirstPage(Pageable pageable);
+
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.PostSummaryDto(" +
+            "p.id, p.title, p.content, p.author.id, p.category.id, p.createdDate, p.commentCount) " +
+            "FROM Post p " +
+            "WHERE p.createdDate < :createdDate OR (p.createdDate = :createdDate AND p.id < :id) " +
+            "ORDER BY p.createdDate DESC, p.id DESC")
+    List<PostSummaryDto> findPageAfter(LocalDateTime createdDate, Long id, Pageable pageable);
+
+    // Same keyset walk within one category, on the (category_id, created_date, id) index
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.PostSummaryDto(" +
+            "p.id, p.title, p.content, p.author.id, p.category.id, p.createdDate, p.commentCount) " +
+            "FROM Post p WHERE p.category.id = :categoryId ORDER BY p.createdDate DESC, p.id DESC")
+    List<PostSummaryDto> findFirstPageByCategory(Long categoryId, Pageable pageable);
+
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.PostSummaryDto(" +
+            "p.id, p.title, p.content, p.author.id, p.category.id, p.createdDate, p.commentCount) " +
+            "FROM Post p WHERE p.category.id = :categoryId " +
+            "AND (p.createdDate < :createdDate OR (p.createdDate = :createdDate AND p.id < :id)) " +
+            "ORDER BY p.createdDate DESC, p.id DESC")
+    List<PostSummaryDto> findPageAfterByCategory(Long categoryId, LocalDateTime createdDate, Long id, Pageable pageable);
+
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.PostSummaryDto(" +
+            "p.id, p.title, p.content, p.author.id, p.category.id, p.createdDate, p.commentCount) " +
+            "FROM Post p WHERE p.id IN :ids")
+    List<PostSummaryDto> findSummariesByIdIn(Collection<Long> ids);
+
+    // Forward-only cursor for exports, must be consumed inside a transaction and closed.
+    // On MySQL the fetch size only streams with useCursorFetch=true on the connection URL
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.PostSummaryDto(" +
+            "p.id, p.title, p.content, p.author.id, p.category.id, p.createdDate, p.commentCount) " +
+            "FROM Post p ORDER BY p.id")
+    Stream<PostSummaryDto> streamAllSummaries();
+
+    // Publications inside the trending window, replayed into TrendingPostRanking on startup
+    @Query("SELECT new org.sebas.blogbackendspringboot.dto.PostActivity(p.id, p.createdDate) " +
+            "FROM Post p WHERE p.createdDate >= :since")
+    List<PostActivity> findPublishedSince(LocalDateTime since);
+
+    // Atomic in the database, so concurrent comment writers never lose an increment.
+    // Touches updatedDate so Last-Modified moves with the count; the version is left alone
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta, p.updatedDate = :now WHERE p.id = :id")
+    int incrementCommentCount(Long id, long delta, LocalDateTime now);
+
+    // Recounts every post in one statement, only rows that drifted are written
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = (SELECT COUNT(c) FROM Comment c WHERE c.post = p) " +
+            "WHERE p.commentCount <> (SELECT COUNT(c) FROM Comment c WHERE c.post = p)")
+    int reconcileCommentCounts();
 }
@@ -2,10 +2,18 @@ package org.sebas.blogbackendspringboot.repo;
 
 import org.sebas.blogbackendspringboot.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface UserRepo extends JpaRepository<User, Long> {
 
     User findByUsername(String username);
+
+    // Ids only, so validating a batch of users does not trigger the EAGER role fetch
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
 }
@@ -0,0 +1,30 @@
+package org.sebas.blogbackendspringboot.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers cache evictions and in-memory index updates until the surrounding transaction commits
+ * Evicting before the commit lets a concurrent read load the old row and cache it again for the
+ * whole TTL; a rolled back write must not touch them at all. Outside a transaction the action
+ * runs at once, the write it follows has already committed. Call it from the transaction, not
+ * from another deferred action: synchronizations registered during afterCommit are never run
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
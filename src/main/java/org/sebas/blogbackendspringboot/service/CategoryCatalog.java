@@ -0,0 +1,109 @@
+package org.sebas.blogbackendspringboot.service;
+
+import org.sebas.blogbackendspringboot.model.Category;
+import org.sebas.blogbackendspringboot.repo.CategoryRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable in-memory copy of the categories table, loaded on startup
+ * Ids are kept in a sorted long[] with the names in a parallel array, so a lookup is a
+ * binary search with no boxing and no lock. Refreshes build a new snapshot and swap it in
+ * with one volatile write. Categories added since the last refresh are picked up on the
+ * first miss, renames and deletes on the scheduled refresh
+ */
+@Component
+public class CategoryCatalog {
+
+    private static final class Snapshot {
+        private final long[] ids;
+        private final String[] names;
+
+        private Snapshot(long[] ids, String[] names) {
+            this.ids = ids;
+            this.names = names;
+        }
+
+        private int indexOf(long id) {
+            return Arrays.binarySearch(ids, id);
+        }
+    }
+
+    private CategoryRepo categoryRepo;
+
+    private volatile Snapshot snapshot = new Snapshot(new long[0], new String[0]);
+
+    @Autowired
+    public void setCategoryRepo(CategoryRepo categoryRepo) {
+        this.categoryRepo = categoryRepo;
+    }
+
+    /**
+     * Whether a category exists
+     * Answered from the snapshot; an unknown id is checked against the database once and
+     * reloads the snapshot when the category turns out to be new
+     */
+    public boolean exists(Long id) {
+        if (id == null) {
+            return false;
+        }
+        if (contains(id)) {
+            return true;
+        }
+        if (!categoryRepo.existsById(id)) {
+            return false;
+        }
+        refresh();
+        return true;
+    }
+
+    /**
+     * Whether a category is in the snapshot, never queries the database
+     */
+    public boolean contains(Long id) {
+        return id != null && snapshot.indexOf(id) >= 0;
+    }
+
+    /**
+     * Name of a category, or null when it is not in the snapshot
+     */
+    public String name(Long id) {
+        if (id == null) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        int index = current.indexOf(id);
+        return index >= 0 ? current.names[index] : null;
+    }
+
+    public int size() {
+        return snapshot.ids.length;
+    }
+
+    /**
+     * Reload every category and swap the snapshot
+     * Synchronized so a slow refresh can never overwrite a newer one
+     *
+     * @return the number of categories loaded
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${blog.categories.refresh-interval-ms:300000}",
+            initialDelayString = "${blog.categories.refresh-interval-ms:300000}")
+    public synchronized int refresh() {
+        List<Category> categories = categoryRepo.findAllByOrderByIdAsc();
+        long[] ids = new long[categories.size()];
+        String[] names = new String[categories.size()];
+        for (int i = 0; i < categories.size(); i++) {
+            ids[i] = categories.get(i).getId();
+            names[i] = categories.get(i).getName();
+        }
+        snapshot = new Snapshot(ids, names);
+        return ids.length;
+    }
+}
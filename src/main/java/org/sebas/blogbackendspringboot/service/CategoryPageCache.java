@@ -0,0 +1,53 @@
+package org.sebas.blogbackendspringboot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.sebas.blogbackendspringboot.dto.CacheStatsDto;
+import org.sebas.blogbackendspringboot.dto.PostPageDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * In-process cache of the first page of posts in each category, at the default page size
+ * Invalidated by PostService when a post in the category is created, moved or deleted.
+ * Comment counts in a cached page can lag by up to the TTL
+ */
+@Component
+public class CategoryPageCache {
+
+    public static final String NAME = "category-first-pages";
+
+    private final Cache<Long, PostPageDto> cache;
+
+    public CategoryPageCache(@Value("${blog.cache.category-pages.max-size:1000}") long maxSize,
+                             @Value("${blog.cache.category-pages.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<PostPageDto> get(Long categoryId) {
+        return Optional.ofNullable(cache.getIfPresent(categoryId));
+    }
+
+    public void put(Long categoryId, PostPageDto page) {
+        cache.put(categoryId, page);
+    }
+
+    public void evict(Long categoryId) {
+        cache.invalidate(categoryId);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStatsDto stats() {
+        return CacheStatsDto.from(NAME, cache);
+    }
+}
@@ -1,7 +1,11 @@
 package org.sebas.blogbackendspringboot.service;
 
+import org.sebas.blogbackendspringboot.dto.BulkCreateCommentDto;
 import org.sebas.blogbackendspringboot.dto.CommentDto;
+import org.sebas.blogbackendspringboot.dto.CommentPageDto;
+import org.sebas.blogbackendspringboot.dto.CommentSetVersion;
 import org.sebas.blogbackendspringboot.dto.CreateCommentDto;
+import org.sebas.blogbackendspringboot.dto.PageCursor;
 import org.sebas.blogbackendspringboot.model.Comment;
 import org.sebas.blogbackendspringboot.model.Post;
 import org.sebas.blogbackendspringboot.model.User;
@@ -9,25 +13,44 @@ import org.sebas.blogbackendspringboot.repo.CommentRepo;
 import org.sebas.blogbackendspringboot.repo.PostRepo;
 import org.sebas.blogbackendspringboot.repo.UserRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class CommentService {
     private CommentRepo commentRepo;
     private PostRepo postRepo;
     private UserRepo userRepo;
+    private PostDtoCache postDtoCache;
+    private TrendingPostRanking trendingPostRanking;
+
+    @Value("${blog.comments.page-size:50}")
+    private int defaultPageSize = 50;
+
+    @Value("${blog.comments.max-page-size:200}")
+    private int maxPageSize = 200;
     
     @Autowired
-    private void setCommentService(PostRepo postRepo, CommentRepo commentRepo, UserRepo userRepo){
+    private void setCommentService(PostRepo postRepo, CommentRepo commentRepo, UserRepo userRepo, PostDtoCache postDtoCache,
+                                   TrendingPostRanking trendingPostRanking){
         this.postRepo = postRepo;
         this.commentRepo = commentRepo;
         this.userRepo = userRepo;
+        this.postDtoCache = postDtoCache;
+        this.trendingPostRanking = trendingPostRanking;
     }
 
      //Convert Comment entity to CommentDto for secure data transfer
@@ -41,6 +64,11 @@ public class CommentService {
         );
     }
 
+    /**
+     * Add a comment to a post
+     * The post's comment counter is incremented in the same transaction
+     */
+    @Transactional
     public ResponseEntity<?> addComment(Long postId, CreateCommentDto createCommentDto) {
         Optional<Post> postOptional = postRepo.findById(postId);
         Optional<User> userOptional = userRepo.findById(createCommentDto.getUserId());
@@ -62,12 +90,110 @@ public class CommentService {
         comment.setCreatedAt(LocalDateTime.now());
 
         commentRepo.save(comment);
-        return ResponseEntity.status(HttpStatus.CREATED).body(comment);
+        countComments(postId, 1);
+        return ResponseEntity.status(HttpStatus.CREATED).body(createDto(comment));
+    }
+
+    /**
+     * Add many comments to a post in one transaction
+     * Users are validated with a single IN query and the inserts go out as JDBC batches
+     */
+    @Transactional
+    public ResponseEntity<?> addComments(Long postId, BulkCreateCommentDto bulkCreateCommentDto) {
+        if (!postRepo.existsById(postId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Post not found");
+        }
+
+        List<CreateCommentDto> commentDtos = bulkCreateCommentDto.getComments();
+        Set<Long> userIds = commentDtos.stream()
+                .map(CreateCommentDto::getUserId)
+                .collect(Collectors.toSet());
+        Set<Long> missingUserIds = new HashSet<>(userIds);
+        userRepo.findExistingIds(userIds).forEach(missingUserIds::remove);
+        if (!missingUserIds.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("User not found: " + missingUserIds);
+        }
+
+        // References are proxies over ids already validated above, so no extra selects
+        Post post = postRepo.getReferenceById(postId);
+        LocalDateTime now = LocalDateTime.now();
+        List<Comment> comments = commentDtos.stream().map(commentDto -> {
+            Comment comment = new Comment();
+            comment.setContent(commentDto.getContent());
+            comment.setUser(userRepo.getReferenceById(commentDto.getUserId()));
+            comment.setPost(post);
+            comment.setCreatedAt(now);
+            return comment;
+        }).toList();
+
+        commentRepo.saveAll(comments);
+        countComments(postId, comments.size());
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("created", comments.size()));
     }
 
-    public ResponseEntity<List<CommentDto>> getComments(Long postId) {
-        List<Comment> comments = commentRepo.findByPostId(postId);
-        List<CommentDto> commentDtos = comments.stream().map(this::createDto).toList();
+    private void countComments(Long postId, int added) {
+        LocalDateTime now = LocalDateTime.now();
+        postRepo.incrementCommentCount(postId, added, now);
+        // The cached post DTO carries the old count. Both wait for the commit, so a concurrent read
+        // cannot re-cache the old count and rolled back comments never lift the ranking
+        AfterCommit.run(() -> {
+            postDtoCache.evict(postId);
+            trendingPostRanking.commentsAdded(postId, added, now);
+        });
+    }
+
+    /**
+     * Get every comment for a post
+     * The ETag covers the comment count and newest change, so adds, edits and deletes all change it.
+     * No Last-Modified is sent: a delete leaves the newest change where it was, or moves it back,
+     * so If-Modified-Since alone would keep answering 304 for a list that lost a comment
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<CommentDto>> getComments(Long postId, WebRequest request) {
+        CommentSetVersion version = commentRepo.findVersionByPostId(postId);
+        String eTag = ConditionalRequests.weakETag(postId, "comments", version.count(),
+                ConditionalRequests.epochMillis(version.lastModified()));
+        if (ConditionalRequests.isNotModified(request, eTag)) {
+            return ConditionalRequests.notModified();
+        }
+
+        List<CommentDto> commentDtos = commentRepo.findDtosByPostId(postId);
         return new ResponseEntity<>(commentDtos, HttpStatus.OK);
     }
+
+    /**
+     * Get a page of comments for a post, oldest first, using keyset pagination
+     * The cursor is the nextCursor of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getCommentsPage(Long postId, String cursor, Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<CommentDto> comments;
+        if (cursor == null || cursor.isBlank()) {
+            comments = commentRepo.findFirstPage(postId, limit);
+        } else {
+            PageCursor pageCursor;
+            try {
+                pageCursor = PageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor");
+            }
+            comments = commentRepo.findPageAfter(postId, pageCursor.timestamp(), pageCursor.id(), limit);
+        }
+
+        boolean hasMore = comments.size() > pageSize;
+        List<CommentDto> page = hasMore ? comments.subList(0, pageSize) : comments;
+
+        String nextCursor = null;
+        if (hasMore) {
+            CommentDto last = page.getLast();
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return ResponseEntity.ok(new CommentPageDto(page, nextCursor));
+    }
 }
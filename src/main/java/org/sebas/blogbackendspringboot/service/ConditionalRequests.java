@@ -0,0 +1,74 @@
+package org.sebas.blogbackendspringboot.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Helpers for conditional GETs
+ * WebRequest.checkNotModified compares If-None-Match / If-Modified-Since and sets the ETag and
+ * Last-Modified headers on the response, so callers only decide between 304 and building the body
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    static String weakETag(Object... parts) {
+        StringBuilder tag = new StringBuilder("W/\"");
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                tag.append('-');
+            }
+            tag.append(parts[i]);
+        }
+        return tag.append('"').toString();
+    }
+
+    static long epochMillis(LocalDateTime timestamp) {
+        return timestamp == null ? -1 : timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Whether an If-Match header allows writing to a resource whose tag starts with the given parts
+     * Only the leading parts are compared, ignoring the weak prefix and any trailing parts: a tag
+     * like id-version-commentCount carries data that changes without the resource being edited,
+     * and only the version tells whether a write would overwrite someone else's.
+     * This deliberately departs from RFC 9110, which only lets strong tags match If-Match. GET
+     * only sends weak tags, because viewCount and commentCount change the body without changing
+     * the tag. A strong tag would claim byte-identical bodies, and clients could never send one
+     * back. The version inside the weak tag is exact for what a write can conflict with
+     */
+    static boolean matchesIfMatch(String ifMatch, Object... leadingParts) {
+        if (ifMatch == null) {
+            return true;
+        }
+        String current = weakETag(leadingParts);
+        // W/"id-version" without its closing quote, matched by "id-version" or "id-version-..."
+        String prefix = current.substring(2, current.length() - 1);
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            String value = tag.startsWith("W/") ? tag.substring(2) : tag;
+            if (tag.equals("*") || value.equals(prefix + '"') || value.startsWith(prefix + '-')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isNotModified(WebRequest request, String eTag, long lastModified) {
+        return request.checkNotModified(eTag, lastModified);
+    }
+
+    // ETag only, for resources without a trustworthy modification time
+    static boolean isNotModified(WebRequest request, String eTag) {
+        return request.checkNotModified(eTag);
+    }
+
+    static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+    }
+}
@@ -1,6 +1,10 @@
 package org.sebas.blogbackendspringboot.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -9,22 +13,50 @@ import org.springframework.stereotype.Service;
 
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JWTService {
 
+    private static final long VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+
     private String secretkey ="";
+
+    // Built once, both are immutable and thread safe
+    private final SecretKey key;
+    private final JwtParser parser;
+
+    // Tokens whose signature was already checked, keyed by SHA-256 of the token
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
     public JWTService() throws NoSuchAlgorithmException {
         KeyGenerator keyGen = KeyGenerator.getInstance("HmacSHA256");
         SecretKey sk = keyGen.generateKey();
         secretkey = Base64.getEncoder().encodeToString(sk.getEncoded());
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretkey));
+        parser = Jwts.parser().verifyWith(key).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(VERIFIED_TOKEN_CACHE_SIZE)
+                .expireAfter(new UntilTokenExpires())
+                .build();
     }
+
+    /**
+     * Claims the filter needs from a token whose signature has been verified
+     */
+    public record VerifiedToken(String username, Date expiration) {
+        public boolean isExpired() {
+            return expiration == null || expiration.before(new Date());
+        }
+    }
+
     public String generateToken(String username){
 
 
@@ -37,43 +69,71 @@ public class JWTService {
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + 60 * 60 * 10))
                 .and()
-                .signWith(getKey())
+                .signWith(key)
                 .compact();
     }
 
-    private SecretKey getKey(){
-        byte[] keyBytes = Decoders.BASE64.decode(secretkey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Parse and verify a token once
+     * Repeat tokens are answered from the cache until they expire. Invalid tokens throw a JwtException
+     */
+    public VerifiedToken verify(String token) {
+        String cacheKey = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.getExpiration());
+        verifiedTokens.put(cacheKey, verified);
+        return verified;
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).username();
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimResolver){
-        final Claims claims = extractAllClaims(token);
-        return claimResolver.apply(claims);
+    public boolean validateToken(String token, UserDetails userDetails) {
+        return validateToken(verify(token), userDetails);
     }
 
-    private Claims extractAllClaims(String token){
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+        final String userName = token.username();
+        return (userName != null && userName.equals(userDetails.getUsername()) && !token.isExpired());
     }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        final String userName = extractUsername(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
-
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to ship SHA-256
+            throw new IllegalStateException(e);
+        }
     }
 
-    private boolean isTokenExpired(String token){
-        return extractExpirationDate(token).before(new Date());
-    }
+    /**
+     * Evicts each cached token at the moment the token itself expires
+     */
+    private static class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            if (token.expiration() == null) {
+                return 0;
+            }
+            long remainingMillis = token.expiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
 
-    private Date extractExpirationDate(String token){
-        return extractClaim(token, Claims::getExpiration);
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
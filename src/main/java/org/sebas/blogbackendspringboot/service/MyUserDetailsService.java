@@ -1,25 +1,85 @@
 package org.sebas.blogbackendspringboot.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.sebas.blogbackendspringboot.SecurityConfig.BCryptCostCalibrator;
+import org.sebas.blogbackendspringboot.dto.CacheStatsDto;
 import org.sebas.blogbackendspringboot.model.User;
 import org.sebas.blogbackendspringboot.model.UserPrincipal;
 import org.sebas.blogbackendspringboot.repo.UserRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
-public class MyUserDetailsService implements UserDetailsService {
+public class MyUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    public static final String CACHE_NAME = "userDetails";
+
     private UserRepo repo;
 
+    // Every authenticated request resolves its user here, so keep them in memory for a short TTL
+    private final Cache<String, UserDetails> userDetailsCache;
+
+    public MyUserDetailsService(@Value("${blog.cache.user-details.max-size:10000}") long maxSize,
+                                @Value("${blog.cache.user-details.ttl-seconds:300}") long ttlSeconds) {
+        this.userDetailsCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
     @Autowired
     public void setRepo(UserRepo repo){
         this.repo = repo;
     }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Unknown users throw from the loader and are never cached
+        return userDetailsCache.get(username, this::loadFromRepo);
+    }
+
+    /**
+     * Store a rehashed password after a successful login
+     * Called by DaoAuthenticationProvider when the stored hash needs an upgrade
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = repo.findByUsername(userDetails.getUsername());
+        if (user == null) {
+            return userDetails;
+        }
+        // Never trade a stored hash for a cheaper one, e.g. after calibrating on slower hardware
+        if (BCryptCostCalibrator.costOf(newPassword) < BCryptCostCalibrator.costOf(user.getPassword())) {
+            return userDetails;
+        }
+        user.setPassword(newPassword);
+        repo.save(user);
+        evict(user.getUsername());
+        return new UserPrincipal(user);
+    }
+
+    /**
+     * Drop a cached user
+     * Call whenever a user is registered or their password or roles change
+     */
+    public void evict(String username) {
+        userDetailsCache.invalidate(username);
+    }
+
+    public CacheStatsDto stats() {
+        return CacheStatsDto.from(CACHE_NAME, userDetailsCache);
+    }
 
+    private UserDetails loadFromRepo(String username) {
         User user = repo.findByUsername(username);
         if( user == null){
             System.out.println("User Not Found");
@@ -0,0 +1,56 @@
+package org.sebas.blogbackendspringboot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.sebas.blogbackendspringboot.dto.CacheStatsDto;
+import org.sebas.blogbackendspringboot.dto.CreatePostDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * In-process cache of finished post DTOs keyed by post id, with the ETag and last-modified
+ * time they were built from so cache hits can answer conditional GETs too
+ * Bounded by size and TTL, invalidated by PostService on update and delete
+ */
+@Component
+public class PostDtoCache {
+
+    public static final String NAME = "posts";
+
+    public record CachedPost(CreatePostDto post, String eTag, long lastModified) {
+    }
+
+    private final Cache<Long, CachedPost> cache;
+
+    public PostDtoCache(@Value("${blog.cache.posts.max-size:10000}") long maxSize,
+                        @Value("${blog.cache.posts.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<CachedPost> get(Long id) {
+        return Optional.ofNullable(cache.getIfPresent(id));
+    }
+
+    public void put(Long id, CachedPost cachedPost) {
+        cache.put(id, cachedPost);
+    }
+
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStatsDto stats() {
+        return CacheStatsDto.from(NAME, cache);
+    }
+}
@@ -0,0 +1,56 @@
+package org.sebas.blogbackendspringboot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.sebas.blogbackendspringboot.dto.PostSummaryDto;
+import org.sebas.blogbackendspringboot.repo.PostRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class PostExportService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private PostRepo repo;
+    private ObjectMapper objectMapper;
+    private CategoryCatalog categoryCatalog;
+
+    @Autowired
+    public void setPostExportService(PostRepo repo, ObjectMapper objectMapper, CategoryCatalog categoryCatalog) {
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+        this.categoryCatalog = categoryCatalog;
+    }
+
+    /**
+     * Write every post to the stream as newline-delimited JSON
+     * Rows come from a forward-only cursor inside one read-only transaction, so memory stays flat
+     */
+    @Transactional(readOnly = true)
+    public long exportPosts(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(PostSummaryDto.class);
+        long exported = 0;
+
+        try (Stream<PostSummaryDto> posts = repo.streamAllSummaries()) {
+            Iterator<PostSummaryDto> iterator = posts.iterator();
+            while (iterator.hasNext()) {
+                PostSummaryDto post = iterator.next();
+                post.setCategoryName(categoryCatalog.name(post.getCategoryId()));
+                out.write(writer.writeValueAsBytes(post));
+                out.write('\n');
+                if (++exported % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        return exported;
+    }
+}
@@ -0,0 +1,239 @@
+package org.sebas.blogbackendspringboot.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.sebas.blogbackendspringboot.dto.ImportPostDto;
+import org.sebas.blogbackendspringboot.dto.ImportErrorDto;
+import org.sebas.blogbackendspringboot.dto.ImportReportDto;
+import org.sebas.blogbackendspringboot.model.Category;
+import org.sebas.blogbackendspringboot.model.Post;
+import org.sebas.blogbackendspringboot.model.User;
+import org.sebas.blogbackendspringboot.repo.UserRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class PostImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private UserRepo userRepo;
+    private CategoryCatalog categoryCatalog;
+    private PostSearchIndex postSearchIndex;
+    private TrendingPostRanking trendingPostRanking;
+    private CategoryPageCache categoryPageCache;
+    private ObjectMapper objectMapper;
+    private Validator validator;
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${blog.import.batch-size:500}")
+    private int batchSize = 500;
+
+    @Autowired
+    public void setPostImportService(UserRepo userRepo, CategoryCatalog categoryCatalog, PostSearchIndex postSearchIndex,
+                                     ObjectMapper objectMapper, Validator validator,
+                                     PlatformTransactionManager transactionManager) {
+        this.userRepo = userRepo;
+        this.categoryCatalog = categoryCatalog;
+        this.postSearchIndex = postSearchIndex;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Autowired
+    public void setTrendingPostRanking(TrendingPostRanking trendingPostRanking) {
+        this.trendingPostRanking = trendingPostRanking;
+    }
+
+    @Autowired
+    public void setCategoryPageCache(CategoryPageCache categoryPageCache) {
+        this.categoryPageCache = categoryPageCache;
+    }
+
+    // One parsed line waiting for its batch to be inserted
+    private record PendingPost(long line, ImportPostDto post) {
+    }
+
+    /**
+     * Import posts from newline-delimited JSON, one ImportPostDto per line
+     * Records are streamed and inserted in batches; invalid lines are reported and skipped.
+     * A record's createdDate is kept, records without one are published now. Only posts published
+     * inside the trending window reach the trending ranking, so a backfill of old posts leaves it alone
+     */
+    public ImportReportDto importPosts(InputStream input) throws IOException {
+        long start = System.nanoTime();
+
+        // Categories come from the in-memory catalog, authors are resolved once per batch
+        categoryCatalog.refresh();
+
+        long processed = 0;
+        long imported = 0;
+        long failed = 0;
+        List<ImportErrorDto> errors = new ArrayList<>();
+        List<PendingPost> batch = new ArrayList<>(batchSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            processed++;
+
+            String error;
+            ImportPostDto post = null;
+            try {
+                post = objectMapper.readValue(line, ImportPostDto.class);
+                error = validate(post);
+            } catch (JsonProcessingException e) {
+                error = "Malformed JSON: " + e.getOriginalMessage();
+            }
+
+            if (error != null) {
+                failed++;
+                addError(errors, lineNumber, error);
+                continue;
+            }
+
+            batch.add(new PendingPost(lineNumber, post));
+            if (batch.size() == batchSize) {
+                int inserted = insertBatch(batch, errors);
+                imported += inserted;
+                failed += batch.size() - inserted;
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            int inserted = insertBatch(batch, errors);
+            imported += inserted;
+            failed += batch.size() - inserted;
+        }
+
+        // Author and insert errors are found when their batch is written, after later parse errors
+        errors.sort(Comparator.comparingLong(ImportErrorDto::getLine));
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        double postsPerSecond = elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+        return new ImportReportDto(processed, imported, failed, elapsedMillis, postsPerSecond, errors);
+    }
+
+    private String validate(ImportPostDto post) {
+        Set<ConstraintViolation<ImportPostDto>> violations = validator.validate(post);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (!categoryCatalog.contains(post.getCategoryId())) {
+            return "Category not found";
+        }
+        return null;
+    }
+
+    /**
+     * Resolve the batch's authors with one IN query, then insert the records that have one
+     * Returns how many posts were inserted
+     */
+    private int insertBatch(List<PendingPost> batch, List<ImportErrorDto> errors) {
+        Set<Long> authorIds = new HashSet<>(userRepo.findExistingIds(batch.stream()
+                .map(pending -> pending.post().getAuthorId())
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList()));
+
+        List<PendingPost> resolved = new ArrayList<>(batch.size());
+        for (PendingPost pending : batch) {
+            if (authorIds.contains(pending.post().getAuthorId())) {
+                resolved.add(pending);
+            } else {
+                addError(errors, pending.line(), "Author not found");
+            }
+        }
+        return resolved.isEmpty() ? 0 : insertRecords(resolved, errors);
+    }
+
+    /**
+     * Insert records in one transaction, then flush and clear so the persistence context stays small
+     * When the transaction fails the records are retried one by one, so only the bad ones are reported
+     */
+    private int insertRecords(List<PendingPost> records, List<ImportErrorDto> errors) {
+        List<Post> inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<Post> posts = new ArrayList<>(records.size());
+                for (PendingPost pending : records) {
+                    Post post = new Post();
+                    post.setTitle(pending.post().getTitle());
+                    post.setContent(pending.post().getContent());
+                    post.setAuthor(entityManager.getReference(User.class, pending.post().getAuthorId()));
+                    post.setCategory(entityManager.getReference(Category.class, pending.post().getCategoryId()));
+                    LocalDateTime createdDate = pending.post().getCreatedDate();
+                    post.setCreatedDate(createdDate != null ? createdDate : now);
+                    entityManager.persist(post);
+                    posts.add(post);
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return posts;
+            });
+        } catch (DataAccessException | PersistenceException e) {
+            // Thrown by the flush inside a @Service, so Hibernate's exception arrives untranslated
+            if (records.size() == 1) {
+                addError(errors, records.getFirst().line(),
+                        "Insert failed: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                return 0;
+            }
+            int insertedOneByOne = 0;
+            for (PendingPost pending : records) {
+                insertedOneByOne += insertRecords(List.of(pending), errors);
+            }
+            return insertedOneByOne;
+        }
+
+        for (Post post : inserted) {
+            postSearchIndex.indexBatch(post.getId(), post.getTitle(), post.getContent());
+            trendingPostRanking.postPublished(post.getId(), post.getCreatedDate());
+        }
+        postSearchIndex.commit();
+        records.stream().map(pending -> pending.post().getCategoryId()).distinct().forEach(categoryPageCache::evict);
+        return inserted.size();
+    }
+
+    private static void addError(List<ImportErrorDto> errors, long line, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new ImportErrorDto(line, message));
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package org.sebas.blogbackendspringboot.service;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Embedded Lucene inverted index over post title and content
+ * Kept in sync by PostService and rebuilt from the database on startup or on demand
+ */
+@Component
+public class PostSearchIndex implements DisposableBean {
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String CONTENT = "content";
+
+    // Title matches rank above content matches
+    private static final Map<String, Float> BOOSTS = Map.of(TITLE, 2.0f, CONTENT, 1.0f);
+
+    private final Directory directory;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    // Guards every write and refresh, so a rebuild can swap its documents in without a refresh in between
+    private final Object writeLock = new Object();
+    // One rebuild at a time
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // While a rebuild loads, the latest document per post id written meanwhile, null for a delete
+    private Map<Long, Document> writtenDuringRebuild;
+
+    public PostSearchIndex(@Value("${blog.search.index-path:}") String indexPath) throws IOException {
+        // No path means an in-memory index, rebuilt from the database on every startup
+        this.directory = indexPath.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexPath));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    /**
+     * Add or replace the document for a post
+     */
+    public void index(Long id, String title, String content) {
+        Document document = toDocument(id, title, content);
+        synchronized (writeLock) {
+            try {
+                write(id, document);
+                searcherManager.maybeRefresh();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public void delete(Long id) {
+        synchronized (writeLock) {
+            try {
+                write(id, null);
+                searcherManager.maybeRefresh();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Add documents without refreshing the searcher, for bulk loads
+     * Call commit() once the batch is done
+     */
+    public void indexBatch(Long id, String title, String content) {
+        Document document = toDocument(id, title, content);
+        synchronized (writeLock) {
+            try {
+                write(id, document);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public void commit() {
+        synchronized (writeLock) {
+            try {
+                writer.commit();
+                searcherManager.maybeRefresh();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Receives the documents of a rebuild
+     */
+    @FunctionalInterface
+    public interface RebuildSink {
+        void add(Long id, String title, String content);
+    }
+
+    /**
+     * Replace every document with the ones the loader adds
+     * The loader fills a separate in-memory index, searches keep using the live one meanwhile.
+     * The swap then happens in one commit, so a search never sees an empty or half built index.
+     * Posts indexed or deleted while the loader runs are replayed after the swap, so a page the
+     * loader read before such a write can not bring back an old version or a deleted post.
+     * Concurrent rebuilds run one after the other. Returns what the loader returns, e.g. the documents it added
+     */
+    public long rebuild(ToLongFunction<RebuildSink> loader) {
+        rebuildLock.lock();
+        try {
+            synchronized (writeLock) {
+                writtenDuringRebuild = new LinkedHashMap<>();
+            }
+            try (Directory staging = new ByteBuffersDirectory()) {
+                long loaded;
+                try (IndexWriter stagingWriter = new IndexWriter(staging, new IndexWriterConfig(analyzer))) {
+                    loaded = loader.applyAsLong((id, title, content) -> {
+                        try {
+                            stagingWriter.updateDocument(idTerm(id), toDocument(id, title, content));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+                swapIn(staging);
+                return loaded;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                synchronized (writeLock) {
+                    writtenDuringRebuild = null;
+                }
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void swapIn(Directory staging) throws IOException {
+        synchronized (writeLock) {
+            writer.deleteAll();
+            writer.addIndexes(staging);
+            for (Map.Entry<Long, Document> written : writtenDuringRebuild.entrySet()) {
+                if (written.getValue() == null) {
+                    writer.deleteDocuments(idTerm(written.getKey()));
+                } else {
+                    writer.updateDocument(idTerm(written.getKey()), written.getValue());
+                }
+            }
+            writer.commit();
+            searcherManager.maybeRefresh();
+        }
+    }
+
+    // Caller holds writeLock
+    private void write(Long id, Document document) throws IOException {
+        if (document == null) {
+            writer.deleteDocuments(idTerm(id));
+        } else {
+            writer.updateDocument(idTerm(id), document);
+        }
+        if (writtenDuringRebuild != null) {
+            writtenDuringRebuild.put(id, document);
+        }
+    }
+
+    /**
+     * Search post ids ranked by relevance
+     * titleOnly restricts matching to the title field, otherwise title and content are searched
+     */
+    public List<Long> search(String text, boolean titleOnly, int page, int size) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        Query query = parse(text, titleOnly);
+
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            int from = page * size;
+            ScoreDoc[] hits = searcher.search(query, from + size).scoreDocs;
+            StoredFields storedFields = searcher.storedFields();
+
+            List<Long> ids = new ArrayList<>();
+            for (int i = from; i < hits.length; i++) {
+                ids.add(Long.parseLong(storedFields.document(hits[i].doc).get(ID)));
+            }
+            return ids;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private Query parse(String text, boolean titleOnly) {
+        // Parsers are not thread safe, so build one per query. User input is escaped, never parsed as syntax
+        QueryParser parser = titleOnly
+                ? new QueryParser(TITLE, analyzer)
+                : new MultiFieldQueryParser(new String[]{TITLE, CONTENT}, analyzer, BOOSTS);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        try {
+            return parser.parse(QueryParser.escape(text));
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid search query", e);
+        }
+    }
+
+    private void release(IndexSearcher searcher) {
+        if (searcher == null) {
+            return;
+        }
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Term idTerm(Long id) {
+        return new Term(ID, id.toString());
+    }
+
+    private static Document toDocument(Long id, String title, String content) {
+        Document document = new Document();
+        document.add(new StringField(ID, id.toString(), Field.Store.YES));
+        document.add(new TextField(TITLE, title, Field.Store.NO));
+        document.add(new TextField(CONTENT, content, Field.Store.NO));
+        return document;
+    }
+}
@@ -2,6 +2,10 @@ package org.sebas.blogbackendspringboot.service;
 
 import org.sebas.blogbackendspringboot.dto.CommentDto;
 import org.sebas.blogbackendspringboot.dto.CreatePostDto;
+import org.sebas.blogbackendspringboot.dto.PageCursor;
+import org.sebas.blogbackendspringboot.dto.PostPageDto;
+import org.sebas.blogbackendspringboot.dto.PostSummaryDto;
+import org.sebas.blogbackendspringboot.dto.PostVersion;
 import org.sebas.blogbackendspringboot.model.Category;
 import org.sebas.blogbackendspringboot.model.Post;
 import org.sebas.blogbackendspringboot.model.User;
@@ -9,13 +13,27 @@ import org.sebas.blogbackendspringboot.repo.CategoryRepo;
 import org.sebas.blogbackendspringboot.repo.PostRepo;
 import org.sebas.blogbackendspringboot.repo.UserRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class PostService {
@@ -23,6 +41,27 @@ public class PostService {
     private PostRepo repo;
     private UserRepo userRepo;
     private CategoryRepo categoryRepo;
+    private PostDtoCache postDtoCache;
+    private PostSearchIndex postSearchIndex;
+    private PostViewCounter postViewCounter;
+    private TrendingPostRanking trendingPostRanking;
+    private CategoryPageCache categoryPageCache;
+    private CategoryCatalog categoryCatalog;
+
+    // Read-write transactions for reads whose result is cached, which keeps them on the primary when a
+    // replica is configured. Runs the callback directly until a transaction manager is set, as in unit tests
+    private TransactionOperations primaryReads = TransactionOperations.withoutTransaction();
+
+    private static final int REINDEX_BATCH_SIZE = 500;
+
+    @Value("${blog.posts.page-size:20}")
+    private int defaultPageSize = 20;
+
+    @Value("${blog.posts.max-page-size:100}")
+    private int maxPageSize = 100;
+
+    @Value("${blog.posts.trending.page-size:10}")
+    private int defaultTrendingSize = 10;
 
     @Autowired
     public void setRepo(PostRepo repo, UserRepo userRepo, CategoryRepo categoryRepo) {
@@ -31,94 +70,303 @@ public class PostService {
         this.categoryRepo = categoryRepo;
     }
 
+    @Autowired
+    public void setPostDtoCache(PostDtoCache postDtoCache) {
+        this.postDtoCache = postDtoCache;
+    }
+
+    @Autowired
+    public void setPostSearchIndex(PostSearchIndex postSearchIndex) {
+        this.postSearchIndex = postSearchIndex;
+    }
+
+    @Autowired
+    public void setPostViewCounter(PostViewCounter postViewCounter) {
+        this.postViewCounter = postViewCounter;
+    }
+
+    @Autowired
+    public void setCategoryCatalog(CategoryCatalog categoryCatalog) {
+        this.categoryCatalog = categoryCatalog;
+    }
+
+    @Autowired
+    public void setCategoryPageCache(CategoryPageCache categoryPageCache) {
+        this.categoryPageCache = categoryPageCache;
+    }
+
+    @Autowired
+    public void setTrendingPostRanking(TrendingPostRanking trendingPostRanking) {
+        this.trendingPostRanking = trendingPostRanking;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.primaryReads = new TransactionTemplate(transactionManager);
+    }
+
     /**
      * Convert Post entity to CreatePostDto for secure data transfer
+     * Package-private so the JMH mapping benchmark can call it
      */
-    private CreatePostDto createCreatePostDto(Post post) {
+    CreatePostDto createCreatePostDto(Post post) {
         return new CreatePostDto(
                 post.getTitle(),
                 post.getContent(),
                 post.getAuthor().getId(),
-                post.getCategory().getId()
+                post.getCategory().getId(),
+                post.getCommentCount(),
+                post.getViewCount()
         );
     }
 
-    //Return a new list with dtos
-    private List<CreatePostDto> convertToCreatePostDtoList(List<Post> postList){
-        return postList.stream().map(this::createCreatePostDto).toList();
-    }
-
+    @Transactional(readOnly = true)
     public ResponseEntity<List<CreatePostDto>> getPostsList() {
-        List<Post> posts = repo.findAll();
-        List<CreatePostDto> postDtoList = convertToCreatePostDtoList(posts);
+        List<CreatePostDto> postDtoList = repo.findAllPostDtos();
         return new ResponseEntity<>(postDtoList, HttpStatus.OK);
     }
 
+    /**
+     * Get a page of posts, newest first, using keyset pagination
+     * The cursor is the nextCursor of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getPostsPage(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<PostSummaryDto> posts;
+        if (cursor == null || cursor.isBlank()) {
+            posts = repo.findFirstPage(limit);
+        } else {
+            PageCursor pageCursor;
+            try {
+                pageCursor = PageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor");
+            }
+            posts = repo.findPageAfter(pageCursor.timestamp(), pageCursor.id(), limit);
+        }
+        return ResponseEntity.ok(toPage(posts, pageSize));
+    }
+
+    /**
+     * Get a page of the posts in a category, newest first, using keyset pagination
+     * The first page at the default size is served from CategoryPageCache. Like getPostById it is
+     * loaded in a read-write transaction, which keeps it on the primary so the cache is never filled
+     * from a lagging replica; later pages are not cached and read from the replica
+     */
+    public ResponseEntity<?> getCategoryPostsPage(Long categoryId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        boolean firstPage = cursor == null || cursor.isBlank();
+        boolean cacheable = firstPage && pageSize == defaultPageSize;
+        if (cacheable) {
+            Optional<PostPageDto> cached = categoryPageCache.get(categoryId);
+            if (cached.isPresent()) {
+                return ResponseEntity.ok(cached.get());
+            }
+            return primaryReads.execute(status -> loadCategoryPage(categoryId, cursor, pageSize, true));
+        }
+        return loadCategoryPage(categoryId, cursor, pageSize, false);
+    }
+
+    private ResponseEntity<?> loadCategoryPage(Long categoryId, String cursor, int pageSize, boolean cacheable) {
+        boolean firstPage = cursor == null || cursor.isBlank();
+        if (!categoryCatalog.exists(categoryId)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<PostSummaryDto> posts;
+        if (firstPage) {
+            posts = repo.findFirstPageByCategory(categoryId, limit);
+        } else {
+            PageCursor pageCursor;
+            try {
+                pageCursor = PageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor");
+            }
+            posts = repo.findPageAfterByCategory(categoryId, pageCursor.timestamp(), pageCursor.id(), limit);
+        }
+
+        PostPageDto page = toPage(posts, pageSize);
+        if (cacheable) {
+            categoryPageCache.put(categoryId, page);
+        }
+        return ResponseEntity.ok(page);
+    }
+
+    // Deferred to the commit like the post cache, so a racing read cannot re-cache the old first page
+    private void evictCategoryPage(Category category) {
+        if (category != null) {
+            Long categoryId = category.getId();
+            AfterCommit.run(() -> categoryPageCache.evict(categoryId));
+        }
+    }
+
+    // Fills in category names from the in-memory catalog instead of joining the categories table
+    private List<PostSummaryDto> withCategoryNames(List<PostSummaryDto> posts) {
+        for (PostSummaryDto post : posts) {
+            post.setCategoryName(categoryCatalog.name(post.getCategoryId()));
+        }
+        return posts;
+    }
+
+    // Trims the extra row fetched by the keyset queries and turns it into the next cursor
+    private PostPageDto toPage(List<PostSummaryDto> posts, int pageSize) {
+        boolean hasMore = posts.size() > pageSize;
+        List<PostSummaryDto> page = hasMore ? posts.subList(0, pageSize) : posts;
+
+        String nextCursor = null;
+        if (hasMore) {
+            PostSummaryDto last = page.getLast();
+            nextCursor = new PageCursor(last.getCreatedDate(), last.getId()).encode();
+        }
+        return new PostPageDto(withCategoryNames(page), nextCursor);
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
     /**
      * Create a new post
      * Validates author and category existence before creating post
      */
     public ResponseEntity<?> createPost(CreatePostDto createPostDto) {
         Optional<User> author = userRepo.findById(createPostDto.getAuthorId());
-        Optional<Category> category = categoryRepo.findById(createPostDto.getCategoryId());
-        
+
         if (author.isEmpty()) {
             return ResponseEntity.badRequest().body("Author not found");
         }
         
-        if (category.isEmpty()) {
+        if (!categoryCatalog.exists(createPostDto.getCategoryId())) {
             return ResponseEntity.badRequest().body("Category not found");
         }
+        // Known to exist, so a reference is enough and the category row is never read
+        Category category = categoryRepo.getReferenceById(createPostDto.getCategoryId());
         
         Post post = new Post();
         post.setTitle(createPostDto.getTitle());
         post.setContent(createPostDto.getContent());
         post.setAuthor(author.get());
-        post.setCategory(category.get());
+        post.setCategory(category);
         post.setCreatedDate(LocalDateTime.now());
         
-        repo.save(post);
+        Post savedPost = repo.save(post);
+        postSearchIndex.index(savedPost.getId(), savedPost.getTitle(), savedPost.getContent());
+        trendingPostRanking.postPublished(savedPost.getId(), savedPost.getCreatedDate());
+        evictCategoryPage(category);
         return ResponseEntity.ok(createPostDto);
     }
 
-    public ResponseEntity<CreatePostDto> getPostById(Long id){
+    /**
+     * Get a post by ID
+     * Served from the post cache when possible, otherwise loaded and cached.
+     * Answers 304 when the client's ETag or Last-Modified is still current.
+     * A miss is loaded in one read-write transaction, so the ETag and the body come from the primary:
+     * a lagging replica could put a pre-update copy in the cache for its whole TTL
+     */
+    public ResponseEntity<CreatePostDto> getPostById(Long id, WebRequest request){
+        Optional<PostDtoCache.CachedPost> cached = postDtoCache.get(id);
+        if (cached.isPresent()) {
+            postViewCounter.record(id);
+            if (ConditionalRequests.isNotModified(request, cached.get().eTag(), cached.get().lastModified())) {
+                return ConditionalRequests.notModified();
+            }
+            return ResponseEntity.ok(cached.get().post());
+        }
+        return primaryReads.execute(status -> loadPost(id, request));
+    }
+
+    private ResponseEntity<CreatePostDto> loadPost(Long id, WebRequest request) {
+        // A two-column lookup decides 304 before the post, author and category are loaded
+        Optional<PostVersion> version = repo.findVersionById(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String eTag = postETag(id, version.get().version(), version.get().commentCount());
+        long lastModifiedMillis = ConditionalRequests.epochMillis(version.get().lastModified());
+        postViewCounter.record(id);
+        if (ConditionalRequests.isNotModified(request, eTag, lastModifiedMillis)) {
+            return ConditionalRequests.notModified();
+        }
+
         Optional<Post> post = repo.findById(id);
         if (post.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         CreatePostDto postDto = createCreatePostDto(post.get());
+        postDtoCache.put(id, new PostDtoCache.CachedPost(postDto, eTag, lastModifiedMillis));
         return ResponseEntity.ok(postDto);
     }
 
+    // The comment count is part of the body but does not bump the version, so both go in the tag.
+    // If-Match only compares the leading id and version
+    private static String postETag(Long id, long version, long commentCount) {
+        return ConditionalRequests.weakETag(id, version, commentCount);
+    }
+
     /**
      * Update an existing post
-     * Validates post existence and category before updating
+     * Validates post existence and category before updating.
+     * ifMatch, when sent, must carry the post's current version or the update is refused with 412;
+     * the comment count in the tag is ignored, new comments do not conflict with an edit.
+     * A concurrent update that commits first fails this one with an optimistic lock exception (409)
      */
-    public ResponseEntity<?> updatePost(Long id, CreatePostDto updatePostDto) {
+    @Transactional
+    public ResponseEntity<?> updatePost(Long id, CreatePostDto updatePostDto, String ifMatch) {
         Optional<Post> existingPost = repo.findById(id);
-        Optional<Category> category = categoryRepo.findById(updatePostDto.getCategoryId());
 
         if (existingPost.isEmpty()){
             return ResponseEntity.notFound().build();
         }
-        if (category.isEmpty()) {
+        if (!categoryCatalog.exists(updatePostDto.getCategoryId())) {
             return ResponseEntity.badRequest().body("Category not found");
         }
+        Category category = categoryRepo.getReferenceById(updatePostDto.getCategoryId());
         Post post = existingPost.get();
+        if (!ConditionalRequests.matchesIfMatch(ifMatch, id, post.getVersion())) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .eTag(postETag(id, post.getVersion(), post.getCommentCount()))
+                    .body("Post was modified, fetch it again before updating");
+        }
+        Category previousCategory = post.getCategory();
         post.setTitle(updatePostDto.getTitle());
         post.setContent(updatePostDto.getContent());
-        post.setCategory(category.get());
-        repo.save(post);
+        post.setCategory(category);
+        // Flush now so the version check runs here and the new version is known for the ETag
+        repo.saveAndFlush(post);
+        String title = post.getTitle();
+        String content = post.getContent();
+        AfterCommit.run(() -> {
+            postDtoCache.evict(id);
+            postSearchIndex.index(id, title, content);
+        });
+        // Title and content show on the category page, and a moved post leaves its old one
+        evictCategoryPage(previousCategory);
+        evictCategoryPage(category);
         // Map Post to CreatePostDto (flat DTO, no nested objects)
         CreatePostDto responseDto = new CreatePostDto(
             post.getTitle(),
             post.getContent(),
             post.getAuthor().getId(),
-            post.getCategory().getId()
+            post.getCategory().getId(),
+            post.getCommentCount(),
+            post.getViewCount()
         );
-        return ResponseEntity.ok(responseDto);
+        return ResponseEntity.ok()
+                .eTag(postETag(id, post.getVersion(), post.getCommentCount()))
+                .body(responseDto);
     }
 
+    @Transactional
     public ResponseEntity<?> deletePost(Long id){
         Optional<Post> post = repo.findById(id);
 
@@ -126,26 +374,111 @@ public class PostService {
             return ResponseEntity.notFound().build();
         }
         repo.delete(post.get());
-        return ResponseEntity.ok(post);
+        Category category = post.get().getCategory();
+        AfterCommit.run(() -> {
+            postDtoCache.evict(id);
+            postSearchIndex.delete(id);
+            trendingPostRanking.postDeleted(id);
+        });
+        evictCategoryPage(category);
+        return ResponseEntity.ok(createCreatePostDto(post.get()));
+    }
+
+    /**
+     * Search posts through the full-text index
+     * title searches titles only, query searches title and content. Results are ranked by relevance
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> searchPosts(String title, String query, Integer page, Integer size) {
+        boolean titleOnly = query == null || query.isBlank();
+        String text = titleOnly ? title : query;
+        if (text == null || text.isBlank()) {
+            return ResponseEntity.badRequest().body("A title or query parameter is required");
+        }
+
+        List<Long> ids;
+        try {
+            ids = postSearchIndex.search(text, titleOnly, page == null ? 0 : Math.max(page, 0), resolvePageSize(size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return ResponseEntity.ok(findSummariesInOrder(ids));
     }
 
     /**
-     * Search posts by title
-     * Returns posts matching the title parameter
+     * Get the hottest posts, best first
+     * The ranking is held in memory by TrendingPostRanking, only the returned posts are read
      */
-    public ResponseEntity<List<CreatePostDto>> searchPostByTitle(String title) {
-        List<Post> posts = repo.searchByTitle(title);
-        List<CreatePostDto> postDtoList = convertToCreatePostDtoList(posts);
-        return ResponseEntity.ok(postDtoList);
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<PostSummaryDto>> getTrendingPosts(Integer limit) {
+        int size = limit == null ? defaultTrendingSize : Math.max(1, Math.min(limit, maxPageSize));
+        return ResponseEntity.ok(findSummariesInOrder(trendingPostRanking.top(size)));
+    }
+
+    // Loads posts in one query and restores the order of ids, skipping ids deleted in the meantime
+    private List<PostSummaryDto> findSummariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PostSummaryDto> postsById = repo.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(PostSummaryDto::getId, Function.identity()));
+        return withCategoryNames(ids.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    /**
+     * Rebuild the search index from the database
+     * Walks the posts table in keyset pages, searches keep answering from the old index until the new one is swapped in
+     */
+    public long rebuildSearchIndex() {
+        PageRequest batch = PageRequest.of(0, REINDEX_BATCH_SIZE);
+        return postSearchIndex.rebuild(sink -> {
+            long indexed = 0;
+            List<PostSummaryDto> posts = repo.findFirstPage(batch);
+            while (!posts.isEmpty()) {
+                for (PostSummaryDto post : posts) {
+                    sink.add(post.getId(), post.getTitle(), post.getContent());
+                }
+                indexed += posts.size();
+                PostSummaryDto last = posts.getLast();
+                posts = repo.findPageAfter(last.getCreatedDate(), last.getId(), batch);
+            }
+            return indexed;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndexOnStartup() {
+        rebuildSearchIndex();
+    }
+
+    /**
+     * Recompute every post's comment count from the comments table
+     * The counters are kept by increments on write, this repairs any drift such as comments removed by SQL
+     */
+    @Transactional
+    @Scheduled(cron = "${blog.posts.comment-count.reconcile-cron:0 30 3 * * *}")
+    public int reconcileCommentCounts() {
+        int corrected = repo.reconcileCommentCounts();
+        if (corrected > 0) {
+            // Which posts changed is not known, so drop every cached DTO and page once the fix is committed
+            AfterCommit.run(() -> {
+                postDtoCache.evictAll();
+                categoryPageCache.evictAll();
+            });
+        }
+        return corrected;
     }
 
     /**
      * Get posts by author ID
      * Returns all posts written by the specified author
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<List<CreatePostDto>> searchPostByAuthorId(Long id){
-        List<Post> postList = repo.searchPostByAuthorId(id);
-        List<CreatePostDto> postDtoList = convertToCreatePostDtoList(postList);
+        List<CreatePostDto> postDtoList = repo.searchPostByAuthorId(id);
         return new ResponseEntity<>(postDtoList, HttpStatus.OK);
     }
 }
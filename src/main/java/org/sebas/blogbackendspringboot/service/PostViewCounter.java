@@ -0,0 +1,159 @@
+package org.sebas.blogbackendspringboot.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind view counter for posts
+ * Reads only bump a LongAdder in memory, the totals are written with one batched
+ * UPDATE per flush interval, when more than max-tracked posts are pending, and on shutdown
+ * A view racing the flush of its own post can be lost, counts are approximate by design
+ */
+@Component
+public class PostViewCounter implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(PostViewCounter.class);
+
+    static final String FLUSH_SQL = "UPDATE post SET view_count = view_count + ? WHERE id = ?";
+
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxTracked;
+    private final int batchSize;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean earlyFlushQueued = new AtomicBoolean();
+    private final AtomicLong flushedViews = new AtomicLong();
+    private final ExecutorService earlyFlushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "post-view-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PostViewCounter(JdbcTemplate jdbcTemplate,
+                           @Value("${blog.posts.views.max-tracked:10000}") int maxTracked,
+                           @Value("${blog.posts.views.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxTracked = maxTracked;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Count one view, lock-free apart from the first view of a post since the last flush
+     */
+    public void record(Long postId) {
+        pending.computeIfAbsent(postId, id -> new LongAdder()).increment();
+        if (pending.size() > maxTracked && earlyFlushQueued.compareAndSet(false, true)) {
+            // Keep memory bounded without making this read pay for the UPDATE
+            try {
+                earlyFlushExecutor.execute(() -> {
+                    earlyFlushQueued.set(false);
+                    flush();
+                });
+            } catch (RejectedExecutionException e) {
+                earlyFlushQueued.set(false);
+            }
+        }
+    }
+
+    /**
+     * Views counted for a post but not yet written
+     */
+    public long pendingViews(Long postId) {
+        LongAdder adder = pending.get(postId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Write every pending count to the database
+     * Entries are removed before they are summed so the map only holds posts viewed since the last flush
+     *
+     * @return the number of views written
+     */
+    @Scheduled(fixedDelayString = "${blog.posts.views.flush-interval-ms:10000}")
+    public long flush() {
+        flushLock.lock();
+        try {
+            List<Object[]> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+            long views = 0;
+            for (Long postId : pending.keySet()) {
+                LongAdder adder = pending.remove(postId);
+                if (adder == null) {
+                    continue;
+                }
+                long count = adder.sum();
+                if (count > 0) {
+                    batch.add(new Object[]{count, postId});
+                }
+                if (batch.size() == batchSize) {
+                    views += write(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            views += write(batch);
+            flushedViews.addAndGet(views);
+            return views;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private long write(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            return batch.stream().mapToLong(row -> (Long) row[0]).sum();
+        } catch (DataAccessException e) {
+            // Put the counts back so the next flush retries them
+            log.warn("Could not write {} post view counts, retrying on the next flush", batch.size(), e);
+            for (Object[] row : batch) {
+                pending.computeIfAbsent((Long) row[1], id -> new LongAdder()).add((Long) row[0]);
+            }
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        earlyFlushExecutor.shutdown();
+        earlyFlushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        long views = flush();
+        if (views > 0) {
+            log.info("Wrote {} pending post views on shutdown", views);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("blog.posts.views.pending", pending, Map::size)
+                .description("Posts with views not yet written to the database")
+                .register(registry);
+        FunctionCounter.builder("blog.posts.views.flushed", flushedViews, AtomicLong::get)
+                .description("Post views written to the database")
+                .register(registry);
+    }
+}
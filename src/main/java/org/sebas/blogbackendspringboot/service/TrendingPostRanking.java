@@ -0,0 +1,212 @@
+package org.sebas.blogbackendspringboot.service;
+
+import org.sebas.blogbackendspringboot.dto.PostActivity;
+import org.sebas.blogbackendspringboot.dto.PostCommentActivity;
+import org.sebas.blogbackendspringboot.repo.CommentRepo;
+import org.sebas.blogbackendspringboot.repo.PostRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory "hot posts" ranking
+ * Publishing a post and every comment on it add weight that decays exponentially with the given
+ * half-life. Scores are stored relative to a fixed epoch, so decay never has to be applied to
+ * existing entries: an event at time t adds weight * 2^((t - epoch) / halfLife), and the
+ * ordering this gives at any later time is the same as decaying everything to that time.
+ * The epoch is moved forward periodically to keep the exponents small.
+ * The best capacity posts are kept in a skip-list so reads never lock or sort
+ */
+@Component
+public class TrendingPostRanking {
+
+    private record Ranked(double score, long postId) implements Comparable<Ranked> {
+        // Highest score first, newer ids break ties
+        @Override
+        public int compareTo(Ranked other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : Long.compare(other.postId, postId);
+        }
+    }
+
+    private PostRepo postRepo;
+    private CommentRepo commentRepo;
+
+    private final double decayPerMilli;
+    private final double postWeight;
+    private final double commentWeight;
+    private final int capacity;
+    private final Duration window;
+
+    // Writes are rare next to reads, one lock keeps scores and the top set consistent
+    private final Object lock = new Object();
+    private Map<Long, Double> scores = new HashMap<>();
+    private long epochMillis = System.currentTimeMillis();
+    private int topSize;
+    private volatile ConcurrentSkipListSet<Ranked> top = new ConcurrentSkipListSet<>();
+
+    public TrendingPostRanking(@Value("${blog.posts.trending.half-life-hours:24}") double halfLifeHours,
+                               @Value("${blog.posts.trending.post-weight:1}") double postWeight,
+                               @Value("${blog.posts.trending.comment-weight:2}") double commentWeight,
+                               @Value("${blog.posts.trending.capacity:1000}") int capacity,
+                               @Value("${blog.posts.trending.window-hours:336}") long windowHours) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("blog.posts.trending.capacity must be at least 1, was " + capacity);
+        }
+        this.decayPerMilli = Math.log(2) / (halfLifeHours * 3_600_000d);
+        this.postWeight = postWeight;
+        this.commentWeight = commentWeight;
+        this.capacity = capacity;
+        this.window = Duration.ofHours(windowHours);
+    }
+
+    @Autowired
+    public void setRepos(PostRepo postRepo, CommentRepo commentRepo) {
+        this.postRepo = postRepo;
+        this.commentRepo = commentRepo;
+    }
+
+    /**
+     * Rank a new post by its publication date
+     * Posts published before the window are ignored, as rebuild would, so imports of old posts leave the ranking alone
+     */
+    public void postPublished(Long postId, LocalDateTime createdDate) {
+        if (createdDate.isBefore(LocalDateTime.now().minus(window))) {
+            return;
+        }
+        synchronized (lock) {
+            add(postId, postWeight, ConditionalRequests.epochMillis(createdDate));
+        }
+    }
+
+    public void commentsAdded(Long postId, int count, LocalDateTime createdAt) {
+        synchronized (lock) {
+            add(postId, commentWeight * count, ConditionalRequests.epochMillis(createdAt));
+        }
+    }
+
+    /**
+     * Drop a deleted post
+     * The free slot is refilled at the next rebase, until then the top holds one post less
+     */
+    public void postDeleted(Long postId) {
+        synchronized (lock) {
+            Double score = scores.remove(postId);
+            if (score != null && top.remove(new Ranked(score, postId))) {
+                topSize--;
+            }
+        }
+    }
+
+    /**
+     * Ids of the hottest posts, best first
+     */
+    public List<Long> top(int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        for (Ranked ranked : top) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(ranked.postId());
+        }
+        return ids;
+    }
+
+    // Caller holds the lock
+    private void add(Long postId, double weight, long atMillis) {
+        double delta = weight * Math.exp(decayPerMilli * (atMillis - epochMillis));
+        Double previous = scores.get(postId);
+        double score = previous == null ? delta : previous + delta;
+        scores.put(postId, score);
+
+        if (previous != null && top.remove(new Ranked(previous, postId))) {
+            topSize--;
+        }
+        Ranked ranked = new Ranked(score, postId);
+        if (topSize < capacity) {
+            top.add(ranked);
+            topSize++;
+        } else if (ranked.compareTo(top.last()) < 0) {
+            top.add(ranked);
+            top.pollLast();
+        }
+    }
+
+    /**
+     * Move the epoch to now, rescaling every score, and forget posts whose score fell below
+     * that of a post published window-hours ago without comments
+     */
+    @Scheduled(fixedDelayString = "${blog.posts.trending.rebase-interval-ms:3600000}",
+            initialDelayString = "${blog.posts.trending.rebase-interval-ms:3600000}")
+    public void rebase() {
+        synchronized (lock) {
+            long now = System.currentTimeMillis();
+            double factor = Math.exp(-decayPerMilli * (now - epochMillis));
+            double floor = postWeight * Math.exp(-decayPerMilli * window.toMillis());
+            Map<Long, Double> rescaled = new HashMap<>();
+            scores.forEach((postId, score) -> {
+                double value = score * factor;
+                if (value >= floor) {
+                    rescaled.put(postId, value);
+                }
+            });
+            install(rescaled, now);
+        }
+    }
+
+    /**
+     * Replace the ranking with one built from the database
+     * Only publications and comments inside the window are read, older ones are below the floor anyway.
+     * Comments are decayed and summed per post by the database, so memory grows with posts, not comments
+     *
+     * @return the number of posts ranked
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int rebuild() {
+        LocalDateTime nowDate = LocalDateTime.now();
+        long now = ConditionalRequests.epochMillis(nowDate);
+        LocalDateTime since = nowDate.minus(window);
+        List<PostActivity> published = postRepo.findPublishedSince(since);
+        List<PostCommentActivity> commented = commentRepo.findDecayedActivitySince(since, nowDate, decayPerMilli * 1000);
+
+        Map<Long, Double> rebuilt = new HashMap<>();
+        for (PostActivity activity : published) {
+            rebuilt.merge(activity.postId(), decayed(postWeight, activity, now), Double::sum);
+        }
+        for (PostCommentActivity activity : commented) {
+            rebuilt.merge(activity.postId(), commentWeight * activity.decayedCount(), Double::sum);
+        }
+        synchronized (lock) {
+            install(rebuilt, now);
+            return scores.size();
+        }
+    }
+
+    private double decayed(double weight, PostActivity activity, long nowMillis) {
+        return weight * Math.exp(decayPerMilli * (ConditionalRequests.epochMillis(activity.at()) - nowMillis));
+    }
+
+    // Caller holds the lock. Readers switch to the new top set in one volatile write
+    private void install(Map<Long, Double> newScores, long newEpochMillis) {
+        List<Ranked> ranked = new ArrayList<>(newScores.size());
+        newScores.forEach((postId, score) -> ranked.add(new Ranked(score, postId)));
+        ranked.sort(null);
+
+        ConcurrentSkipListSet<Ranked> newTop = new ConcurrentSkipListSet<>(ranked.subList(0, Math.min(capacity, ranked.size())));
+        scores = newScores;
+        epochMillis = newEpochMillis;
+        topSize = newTop.size();
+        top = newTop;
+    }
+}
@@ -6,7 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -22,7 +22,11 @@ public class UserService {
     @Autowired
     private JWTService jwtService;
 
-    private BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
+    @Autowired
+    private MyUserDetailsService userDetailsService;
+
+    @Autowired
+    private PasswordEncoder encoder;
 
     /**
      * Register a new user
@@ -31,6 +35,7 @@ public class UserService {
     public User register(User user){
         user.setPassword(encoder.encode(user.getPassword()));
         repo.save(user);
+        userDetailsService.evict(user.getUsername());
         return user;
     }
 
@@ -0,0 +1,41 @@
+package org.sebas.blogbackendspringboot.SecurityConfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for BCryptCostCalibrator
+ * Tests cost selection bounds and reading the cost from stored hashes
+ */
+class BCryptCostCalibratorTest {
+
+    @Test
+    void testCalibrate_UnreachableTarget_ReturnsMinimum() {
+        assertEquals(4, BCryptCostCalibrator.calibrate(0, 4, 6));
+    }
+
+    @Test
+    void testCalibrate_GenerousTarget_StopsAtMaximum() {
+        assertEquals(6, BCryptCostCalibrator.calibrate(60_000, 4, 6));
+    }
+
+    @Test
+    void testCalibration_ProjectsTimeAtTheChosenCost() {
+        BCryptCostCalibrator.Calibration calibration = BCryptCostCalibrator.calibration(60_000, 4, 6);
+
+        assertEquals(6, calibration.cost());
+        assertTrue(calibration.nanosPerHash() > 0);
+    }
+
+    @Test
+    void testCostOf_PlainAndPrefixedHashes() {
+        String hash = new BCryptPasswordEncoder(5).encode("password123");
+
+        assertEquals(5, BCryptCostCalibrator.costOf(hash));
+        assertEquals(5, BCryptCostCalibrator.costOf("{bcrypt}" + hash));
+        assertEquals(-1, BCryptCostCalibrator.costOf("{noop}password123"));
+        assertEquals(-1, BCryptCostCalibrator.costOf(null));
+    }
+}
@@ -0,0 +1,43 @@
+package org.sebas.blogbackendspringboot.SecurityConfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for BCryptUpgradingPasswordEncoder
+ * Tests which stored hashes are flagged for a rehash on login
+ */
+class BCryptUpgradingPasswordEncoderTest {
+
+    private static final String LEGACY_COST_12 = "$2a$12$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ01";
+    private static final String LEGACY_COST_10 = "$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ01";
+
+    @Test
+    void testUpgradeEncoding_LegacyHashAboveCalibratedCost_NotUpgraded() {
+        BCryptUpgradingPasswordEncoder encoder = new BCryptUpgradingPasswordEncoder(10);
+
+        assertFalse(encoder.upgradeEncoding(LEGACY_COST_12));
+        assertFalse(encoder.upgradeEncoding("{bcrypt}" + LEGACY_COST_12));
+    }
+
+    @Test
+    void testUpgradeEncoding_HashBelowCalibratedCost_Upgraded() {
+        BCryptUpgradingPasswordEncoder encoder = new BCryptUpgradingPasswordEncoder(12);
+
+        assertTrue(encoder.upgradeEncoding(LEGACY_COST_10));
+        assertTrue(encoder.upgradeEncoding("{bcrypt}" + LEGACY_COST_10));
+        assertFalse(encoder.upgradeEncoding(LEGACY_COST_12));
+    }
+
+    @Test
+    void testMatches_LegacyHashWithoutPrefix_Matches() {
+        BCryptUpgradingPasswordEncoder encoder = new BCryptUpgradingPasswordEncoder(4);
+        String legacy = new BCryptPasswordEncoder(4).encode("password123");
+
+        assertTrue(encoder.matches("password123", legacy));
+        assertFalse(encoder.matches("wrong", legacy));
+        assertTrue(encoder.encode("password123").startsWith("{bcrypt}$2a$04$"));
+    }
+}
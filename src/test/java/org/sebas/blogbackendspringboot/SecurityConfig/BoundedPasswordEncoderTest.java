@@ -0,0 +1,105 @@
+package org.sebas.blogbackendspringboot.SecurityConfig;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sebas.blogbackendspringboot.exception.PasswordHashingSaturatedException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for BoundedPasswordEncoder
+ * Tests delegation and backpressure when the hashing pool is saturated
+ */
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void testEncodeAndMatches_DelegatesToBCrypt() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 1, 5000);
+
+        String hash = encoder.encode("password123");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    void testEncode_QueueFull_ThrowsSaturated() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, 5000);
+
+        // One task occupies the only thread, the next fills the queue
+        CompletableFuture.runAsync(() -> encoder.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture.runAsync(() -> encoder.encode("second"));
+        waitForQueuedTask();
+
+        assertThrows(PasswordHashingSaturatedException.class, () -> encoder.encode("third"));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        encoder.bindTo(registry);
+        assertEquals(1.0, registry.get("blog.password.hashing.rejected").functionCounter().count());
+        assertEquals(1.0, registry.get("blog.password.hashing.queued").gauge().value());
+    }
+
+    @Test
+    void testMatches_Timeout_ThrowsSaturated() {
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, 50);
+
+        assertThrows(PasswordHashingSaturatedException.class, () -> encoder.matches("password", "hash"));
+    }
+
+    private void waitForQueuedTask() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        encoder.bindTo(registry);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.get("blog.password.hashing.queued").gauge().value() < 1
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                await();
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                await();
+                return true;
+            }
+
+            private void await() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+}
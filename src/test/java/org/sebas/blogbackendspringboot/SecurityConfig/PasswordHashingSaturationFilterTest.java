@@ -0,0 +1,51 @@
+package org.sebas.blogbackendspringboot.SecurityConfig;
+
+import org.junit.jupiter.api.Test;
+import org.sebas.blogbackendspringboot.exception.PasswordHashingSaturatedException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PasswordHashingSaturationFilter
+ * Tests that a saturated hashing pool during HTTP Basic authentication answers 429
+ */
+class PasswordHashingSaturationFilterTest {
+
+    private final PasswordHashingSaturationFilter filter = new PasswordHashingSaturationFilter();
+
+    @Test
+    void testSaturatedHashing_Returns429() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/posts"), response, (request, res) -> {
+            throw new PasswordHashingSaturatedException("Password hashing queue is full");
+        });
+
+        assertEquals(429, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("Password hashing queue is full"));
+    }
+
+    @Test
+    void testSaturationWrappedByTheProvider_Returns429() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/posts"), response, (request, res) -> {
+            throw new InternalAuthenticationServiceException("lookup failed",
+                    new PasswordHashingSaturatedException("Password hashing timed out after 5000 ms"));
+        });
+
+        assertEquals(429, response.getStatus());
+    }
+
+    @Test
+    void testOtherExceptions_Propagate() {
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(new MockHttpServletRequest("GET", "/api/posts"),
+                new MockHttpServletResponse(), (request, res) -> {
+                    throw new IllegalStateException("boom");
+                }));
+    }
+}
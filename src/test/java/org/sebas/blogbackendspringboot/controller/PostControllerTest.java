@@ -24,6 +24,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -97,7 +99,7 @@ class PostControllerTest {
     }
     @Test
     void shouldReturnNotFoundForInvalidId() throws Exception {
-        when(postService.getPostById(999L)).thenReturn(ResponseEntity.notFound().build());
+        when(postService.getPostById(eq(999L), any())).thenReturn(ResponseEntity.notFound().build());
 
         mockMvc.perform(get("/api/posts/999"))
                 .andExpect(status().isNotFound());
@@ -132,7 +134,7 @@ class PostControllerTest {
         createPostDto.setTitle("Test title");
         List<CreatePostDto> listCreatePostDto = new ArrayList<>();
         listCreatePostDto.add(createPostDto);
-        when(postService.searchPostByTitle("Test")).thenReturn(ResponseEntity.ok(listCreatePostDto));
+        doReturn(ResponseEntity.ok(listCreatePostDto)).when(postService).searchPosts("Test", null, null, null);
         mockMvc.perform(get("/api/posts/search")
                         .param("title", "Test"))
                 .andExpect(status().isOk())
@@ -0,0 +1,126 @@
+package org.sebas.blogbackendspringboot.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private ReadYourWritesTracker tracker;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp(){
+        // Two H2 databases stand in for the MySQL primary and replica, each knows which one it is
+        DataSource primary = database("routing-primary");
+        DataSource replica = database("routing-replica");
+        tracker = new ReadYourWritesTracker(Duration.ofMillis(200), 100);
+
+        // Wired as in ReplicaDataSourceConfig
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replica, tracker));
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown(){
+        SecurityContextHolder.clearContext();
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "sa");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS node");
+        jdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private String nodeIn(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static void authenticateAs(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+    }
+
+    @Test
+    void shouldSendReadOnlyTransactionsToTheReplica(){
+        assertThat(nodeIn(readOnly)).isEqualTo("routing-replica");
+    }
+
+    @Test
+    void shouldSendReadWriteTransactionsAndPlainStatementsToThePrimary(){
+        assertThat(nodeIn(readWrite)).isEqualTo("routing-primary");
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM node", String.class)).isEqualTo("routing-primary");
+    }
+
+    @Test
+    void shouldReadFromThePrimaryRightAfterTheUsersOwnWrite(){
+        // Given
+        authenticateAs("writer");
+
+        // When
+        tracker.recordWrite();
+
+        // Then
+        assertThat(nodeIn(readOnly)).isEqualTo("routing-primary");
+    }
+
+    @Test
+    void shouldKeepOtherUsersOnTheReplica(){
+        // Given
+        authenticateAs("writer");
+        tracker.recordWrite();
+
+        // When
+        authenticateAs("reader");
+
+        // Then
+        assertThat(nodeIn(readOnly)).isEqualTo("routing-replica");
+    }
+
+    @Test
+    void shouldReturnToTheReplicaOnceTheWindowPasses() throws InterruptedException {
+        // Given
+        authenticateAs("writer");
+        tracker.recordWrite();
+
+        // When
+        Thread.sleep(300);
+
+        // Then
+        assertThat(nodeIn(readOnly)).isEqualTo("routing-replica");
+    }
+
+    @Test
+    void shouldIgnoreWritesWithoutAUser(){
+        // When
+        tracker.recordWrite();
+
+        // Then
+        assertThat(tracker.isSticky()).isFalse();
+        assertThat(nodeIn(readOnly)).isEqualTo("routing-replica");
+    }
+}
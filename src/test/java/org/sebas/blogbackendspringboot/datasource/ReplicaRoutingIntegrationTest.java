@@ -0,0 +1,155 @@
+package org.sebas.blogbackendspringboot.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sebas.blogbackendspringboot.model.Category;
+import org.sebas.blogbackendspringboot.model.Post;
+import org.sebas.blogbackendspringboot.model.User;
+import org.sebas.blogbackendspringboot.repo.CategoryRepo;
+import org.sebas.blogbackendspringboot.repo.PostRepo;
+import org.sebas.blogbackendspringboot.repo.UserRepo;
+import org.sebas.blogbackendspringboot.service.PostService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing through JPA with the replica configured
+ * Both pools point at the same H2 database so the schema exists on each; which pool served a
+ * service call is told by counting the connections taken from the replica pool
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "blog.datasource.replica.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "blog.datasource.replica.username=sa",
+        "blog.datasource.replica.password=sa"
+})
+@Import(ReplicaRoutingIntegrationTest.CountingReplicaConfig.class)
+class ReplicaRoutingIntegrationTest {
+
+    static class CountingHikariDataSource extends HikariDataSource {
+        final AtomicInteger connections = new AtomicInteger();
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            connections.incrementAndGet();
+            return super.getConnection();
+        }
+    }
+
+    @TestConfiguration
+    static class CountingReplicaConfig {
+        // Swaps the bound replica pool for a counting copy of its configuration
+        @Bean
+        static BeanPostProcessor countingReplica() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (beanName.equals("replicaDataSource") && bean instanceof HikariDataSource replica) {
+                        CountingHikariDataSource counting = new CountingHikariDataSource();
+                        replica.copyStateTo(counting);
+                        return counting;
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    PostService postService;
+
+    @Autowired
+    PostRepo postRepo;
+
+    @Autowired
+    UserRepo userRepo;
+
+    @Autowired
+    CategoryRepo categoryRepo;
+
+    @Autowired
+    HikariDataSource replicaDataSource;
+
+    private Post testPost;
+    private Category testCategory;
+
+    @BeforeEach
+    void setUp() {
+        postRepo.deleteAll();
+        User author = userRepo.findByUsername("routing-author");
+        if (author == null) {
+            author = new User();
+            author.setUsername("routing-author");
+            author.setEmail("routing@example.com");
+            author.setPassword("testpassword");
+            author = userRepo.save(author);
+        }
+        testCategory = new Category();
+        testCategory.setName("Routing");
+        testCategory = categoryRepo.save(testCategory);
+
+        testPost = new Post();
+        testPost.setTitle("Routing Post");
+        testPost.setContent("Routing content");
+        testPost.setAuthor(author);
+        testPost.setCategory(testCategory);
+        testPost = postRepo.save(testPost);
+    }
+
+    private int replicaConnections() {
+        return ((CountingHikariDataSource) replicaDataSource).connections.get();
+    }
+
+    @Test
+    void shouldReadListsFromTheReplica() {
+        // Given
+        int before = replicaConnections();
+
+        // When
+        var result = postService.getPostsPage(null, null);
+
+        // Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(replicaConnections()).isGreaterThan(before);
+    }
+
+    @Test
+    void shouldLoadSinglePostsFromThePrimary() {
+        // Given
+        int before = replicaConnections();
+
+        // When
+        var result = postService.getPostById(testPost.getId(), new ServletWebRequest(new MockHttpServletRequest()));
+
+        // Then the version lookup and findById, read-only on its own, both stay on the primary
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(replicaConnections()).isEqualTo(before);
+    }
+
+    @Test
+    void shouldLoadTheCachedCategoryPageFromThePrimary() {
+        // Given
+        int before = replicaConnections();
+
+        // When
+        var result = postService.getCategoryPostsPage(testCategory.getId(), null, null);
+
+        // Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(replicaConnections()).isEqualTo(before);
+    }
+}
@@ -1,9 +1,12 @@
 package org.sebas.blogbackendspringboot.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.sebas.blogbackendspringboot.dto.CreatePostDto;
+import org.sebas.blogbackendspringboot.dto.ImportPostDto;
 import org.sebas.blogbackendspringboot.model.Category;
 import org.sebas.blogbackendspringboot.model.Post;
 import org.sebas.blogbackendspringboot.model.User;
@@ -11,16 +14,20 @@ import org.sebas.blogbackendspringboot.repo.CategoryRepo;
 import org.sebas.blogbackendspringboot.repo.PostRepo;
 import org.sebas.blogbackendspringboot.repo.UserRepo;
 import org.sebas.blogbackendspringboot.service.PostService;
+import org.sebas.blogbackendspringboot.service.PostViewCounter;
+import org.sebas.blogbackendspringboot.service.TrendingPostRanking;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -46,6 +53,15 @@ public class IntegrationTest {
 
     @Autowired
     UserRepo userRepo;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    PostViewCounter postViewCounter;
+
+    @Autowired
+    TrendingPostRanking trendingPostRanking;
     private User testUser;
     private Category testCategory;
     private Post testPost;
@@ -161,10 +177,38 @@ public class IntegrationTest {
                 .andExpect(jsonPath("$.title").value("Test Post Dto"));
     }
 
+    @Test
+    // An If-Match carrying an outdated ETag is refused instead of overwriting the newer edit
+    void shouldRejectAnUpdateBasedOnAStaleVersion() throws Exception {
+        String originalETag = mockMvc.perform(get("/api/posts/{id}", testPost.getId())
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        String updatedETag = mockMvc.perform(put("/api/posts/{id}", testPost.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", originalETag)
+                        .content(objectMapper.writeValueAsString(createPostDto))
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(updatedETag).isNotEqualTo(originalETag);
+
+        mockMvc.perform(put("/api/posts/{id}", testPost.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", originalETag)
+                        .content(objectMapper.writeValueAsString(createPostDto))
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string("ETag", updatedETag));
+    }
+
     @Test
     // Test that searching posts by title returns the correct list
     void shouldReturnASearchedPostList() throws Exception {
         assertThat(postRepo.findAll()).hasSizeGreaterThan(0);
+        // The post was saved straight through the repository, so bring the index up to date
+        postService.rebuildSearchIndex();
         mockMvc.perform(get("/api/posts/search")
                         .param("title","test post")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -174,4 +218,228 @@ public class IntegrationTest {
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].title").value("Test Post"));
     }
+
+    @Test
+    // Test that posts are streamed as newline-delimited JSON
+    void shouldExportPostsAsNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/posts/export")
+                .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"title\":\"Test Post\"")))
+                .andExpect(content().string(containsString("\n")));
+    }
+
+    @Test
+    // Valid lines are inserted in batches, invalid ones are reported with their line number
+    void shouldImportPostsFromNdjson() throws Exception {
+        postRepo.deleteAll();
+        String body = objectMapper.writeValueAsString(createPostDto) + "\n"
+                + objectMapper.writeValueAsString(new CreatePostDto("Second import", "More content", testUser.getId(), testCategory.getId())) + "\n"
+                + "\n"
+                + objectMapper.writeValueAsString(new CreatePostDto("Orphan", "A post whose author does not exist", -1L, testCategory.getId())) + "\n"
+                + "{not json\n";
+
+        mockMvc.perform(post("/api/posts/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body)
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(4))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(4))
+                .andExpect(jsonPath("$.errors[0].message").value("Author not found"))
+                .andExpect(jsonPath("$.errors[1].line").value(5));
+
+        assertThat(postRepo.findAll())
+                .extracting(Post::getTitle)
+                .containsExactlyInAnyOrder("Test Post Dto", "Second import");
+    }
+
+    @Test
+    // A record the database rejects fails alone, the rest of its batch is retried row by row
+    void shouldReportDatabaseErrorsPerRecordOnImport() throws Exception {
+        postRepo.deleteAll();
+        String body = objectMapper.writeValueAsString(createPostDto) + "\n"
+                // Longer than the VARCHAR(255) content column
+                + objectMapper.writeValueAsString(new CreatePostDto("Too long", "x".repeat(300), testUser.getId(), testCategory.getId())) + "\n"
+                + objectMapper.writeValueAsString(new CreatePostDto("Second import", "More content", testUser.getId(), testCategory.getId())) + "\n";
+
+        mockMvc.perform(post("/api/posts/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body)
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors.length()").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2));
+
+        assertThat(postRepo.findAll())
+                .extracting(Post::getTitle)
+                .containsExactlyInAnyOrder("Test Post Dto", "Second import");
+    }
+
+    @Test
+    // Imported posts keep their original date, and only recent ones enter the trending ranking
+    void shouldKeepTheCreatedDateOfImportedPosts() throws Exception {
+        postRepo.deleteAll();
+        LocalDateTime monthAgo = LocalDateTime.now().minusDays(30).withNano(0);
+        String body = objectMapper.writeValueAsString(new ImportPostDto("Old import", "Written a month ago", testUser.getId(), testCategory.getId(), monthAgo)) + "\n"
+                + objectMapper.writeValueAsString(new ImportPostDto("New import", "Written just now", testUser.getId(), testCategory.getId(), null)) + "\n"
+                + objectMapper.writeValueAsString(new ImportPostDto("Future import", "Not written yet", testUser.getId(), testCategory.getId(), LocalDateTime.now().plusDays(1))) + "\n";
+
+        mockMvc.perform(post("/api/posts/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body)
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+
+        Post old = postRepo.findAll().stream().filter(post -> post.getTitle().equals("Old import")).findFirst().orElseThrow();
+        Post recent = postRepo.findAll().stream().filter(post -> post.getTitle().equals("New import")).findFirst().orElseThrow();
+        assertThat(old.getCreatedDate()).isEqualTo(monthAgo);
+        assertThat(recent.getCreatedDate()).isAfter(monthAgo);
+        assertThat(trendingPostRanking.top(1000))
+                .contains(recent.getId())
+                .doesNotContain(old.getId());
+    }
+
+    @Test
+    // Statements run by a request are reported under its endpoint pattern
+    void shouldRecordStatementsPerEndpoint() throws Exception {
+        mockMvc.perform(get("/api/posts/{id}", testPost.getId())
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("blog.db.statements")
+                .tag("method", "GET")
+                .tag("uri", "/api/posts/{id}")
+                .summary();
+        assertThat(statements.count()).isGreaterThanOrEqualTo(1);
+        assertThat(statements.totalAmount()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    // A client that sends back the ETag gets 304 until the post or its comments change
+    void shouldAnswerNotModifiedForUnchangedPostAndComments() throws Exception {
+        String postETag = mockMvc.perform(get("/api/posts/{id}", testPost.getId())
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/posts/{id}", testPost.getId())
+                        .header("If-None-Match", postETag)
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        String commentsETag = mockMvc.perform(get("/api/posts/{postId}/comments", testPost.getId())
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/posts/{postId}/comments", testPost.getId())
+                        .header("If-None-Match", commentsETag)
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/api/posts/{postId}/comments", testPost.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\":\"New comment\",\"userId\":" + testUser.getId() + "}")
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/posts/{postId}/comments", testPost.getId())
+                        .header("If-None-Match", commentsETag)
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].content").value("New comment"));
+    }
+
+    @Test
+    // The comment list has no Last-Modified, so If-Modified-Since alone never hides a removed comment
+    void shouldValidateCommentListsByETagOnly() throws Exception {
+        mockMvc.perform(get("/api/posts/{postId}/comments", testPost.getId())
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().doesNotExist("Last-Modified"));
+
+        mockMvc.perform(get("/api/posts/{postId}/comments", testPost.getId())
+                        .header("If-Modified-Since", "Fri, 01 Jan 2100 00:00:00 GMT")
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldWritePostViewsOnFlush() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/posts/{id}", testPost.getId())
+                            .with(user("testuser").password("testpassword").roles("USER")))
+                    .andExpect(status().isOk());
+        }
+        assertThat(postViewCounter.pendingViews(testPost.getId())).isEqualTo(3);
+
+        postViewCounter.flush();
+
+        assertThat(postRepo.findById(testPost.getId()).orElseThrow().getViewCount()).isEqualTo(3);
+        assertThat(postViewCounter.pendingViews(testPost.getId())).isZero();
+    }
+
+    @Test
+    void shouldRankCommentedPostsAsTrending() throws Exception {
+        // Drop posts left in the ranking by other tests
+        trendingPostRanking.rebuild();
+
+        mockMvc.perform(post("/api/posts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createPostDto))
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/posts/{postId}/comments", testPost.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\":\"Hot take\",\"userId\":" + testUser.getId() + "}")
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/posts/trending").param("limit", "2")
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testPost.getId()))
+                .andExpect(jsonPath("$[1].title").value("Test Post Dto"));
+    }
+
+    @Test
+    void shouldListCategoryPostsAndSeeNewPostsOnTheCachedFirstPage() throws Exception {
+        mockMvc.perform(get("/api/categories/{id}/posts", testCategory.getId())
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts.length()").value(1))
+                .andExpect(jsonPath("$.posts[0].title").value("Test Post"))
+                .andExpect(jsonPath("$.posts[0].categoryName").value("Technology"));
+
+        mockMvc.perform(post("/api/posts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createPostDto))
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/categories/{id}/posts", testCategory.getId())
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts.length()").value(2))
+                .andExpect(jsonPath("$.posts[0].title").value("Test Post Dto"));
+
+        mockMvc.perform(get("/api/categories/{id}/posts", -1L)
+                        .with(user("testuser").password("testpassword").roles("USER")))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -1,8 +1,11 @@
 package org.sebas.blogbackendspringboot.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.sebas.blogbackendspringboot.model.Role;
 import org.sebas.blogbackendspringboot.model.User;
 import org.sebas.blogbackendspringboot.repo.UserRepo;
 import org.sebas.blogbackendspringboot.service.JWTService;
@@ -14,9 +17,15 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,9 +49,18 @@ public class JWTAuthenticationIntegrationTest {
     @Autowired
     private JWTService jwtService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     private BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
 
     private User testUser;
@@ -127,6 +145,26 @@ public class JWTAuthenticationIntegrationTest {
     }
 
 
+    /**
+     * Test that an authenticated request is counted and its service call timed
+     */
+    @Test
+    void testProtectedEndpoint_ValidToken_RecordsMetrics() throws Exception {
+        String token = jwtService.generateToken(testUser.getUsername());
+
+        mockMvc.perform(get("/api/posts")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("blog.auth.jwt").tag("result", "success").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("blog.service.invocations")
+                .tag("class", "PostService")
+                .tag("method", "getPostsList")
+                .timer().count())
+                .isEqualTo(1);
+    }
+
     /**
      * Test accessing protected endpoint with malformed authorization header
      * Verifies that malformed header format is rejected
@@ -221,4 +259,60 @@ public class JWTAuthenticationIntegrationTest {
                 .header("Authorization", "Bearer " + token))
                 .andExpect(status().isOk());
     }
+
+    /**
+     * Test that rebuilding the search index is reserved for admins
+     * Verifies a plain user is forbidden and a user holding the ADMIN role is allowed
+     */
+    @Test
+    void testReindex_RequiresAdminRole() throws Exception {
+        String token = jwtService.generateToken(testUser.getUsername());
+
+        mockMvc.perform(post("/api/posts/search/reindex")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+
+        User admin = new User();
+        admin.setUsername("admin");
+        admin.setEmail("admin@example.com");
+        admin.setPassword(encoder.encode(testPassword));
+        transactionTemplate.executeWithoutResult(status -> {
+            admin.setRole(new HashSet<>(Set.of(entityManager.merge(new Role("ADMIN", null)))));
+            entityManager.persist(admin);
+        });
+        String adminToken = jwtService.generateToken(admin.getUsername());
+
+        mockMvc.perform(post("/api/posts/search/reindex")
+                .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.indexed").isNumber());
+    }
+
+    /**
+     * Test that the Prometheus endpoint is not public
+     * Verifies anonymous and plain users are refused and a METRICS user can scrape
+     */
+    @Test
+    void testPrometheus_RequiresMetricsRole() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/actuator/prometheus")
+                .header("Authorization", "Bearer " + jwtService.generateToken(testUser.getUsername())))
+                .andExpect(status().isForbidden());
+
+        User scraper = new User();
+        scraper.setUsername("prometheus");
+        scraper.setEmail("prometheus@example.com");
+        scraper.setPassword(encoder.encode(testPassword));
+        transactionTemplate.executeWithoutResult(status -> {
+            scraper.setRole(new HashSet<>(Set.of(entityManager.merge(new Role("METRICS", null)))));
+            entityManager.persist(scraper);
+        });
+
+        // Metrics export is off in tests, so the endpoint itself may be missing; only access is checked
+        mockMvc.perform(get("/actuator/prometheus")
+                .with(httpBasic("prometheus", testPassword)))
+                .andExpect(result -> assertThat(result.getResponse().getStatus()).isNotIn(401, 403));
+    }
 }
@@ -0,0 +1,96 @@
+package org.sebas.blogbackendspringboot.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolMonitorTest {
+
+    private HikariDataSource dataSource;
+
+    @BeforeEach
+    void setUp(){
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:pool-monitor;DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName("test-pool");
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setConnectionTimeout(2000);
+    }
+
+    @AfterEach
+    void tearDown(){
+        dataSource.close();
+    }
+
+    @Test
+    void shouldGrowThePoolWhileThreadsWaitAndShrinkItWhenIdle() throws Exception {
+        // Given
+        ConnectionPoolMonitor monitor = new ConnectionPoolMonitor(dataSource, 200, true, 4, 2, 1);
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // When
+        monitor.adjust();
+
+        // Then
+        assertThat(dataSource.getHikariConfigMXBean().getMaximumPoolSize()).isEqualTo(4);
+        try (Connection third = dataSource.getConnection()) {
+            assertThat(third.isValid(1)).isTrue();
+        }
+
+        // When everything is returned
+        first.close();
+        second.close();
+        waiting.get(2, TimeUnit.SECONDS).close();
+        monitor.adjust();
+
+        // Then
+        assertThat(dataSource.getHikariConfigMXBean().getMaximumPoolSize()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldLeaveThePoolAloneWhenNotAdaptive() throws Exception {
+        // Given
+        ConnectionPoolMonitor monitor = new ConnectionPoolMonitor(dataSource, 200, false, 4, 2, 1);
+        dataSource.getConnection().close();
+
+        // When
+        monitor.adjust();
+
+        // Then
+        assertThat(dataSource.getHikariConfigMXBean().getMaximumPoolSize()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldPublishPoolUtilization() throws Exception {
+        // Given
+        ConnectionPoolMonitor monitor = new ConnectionPoolMonitor(dataSource, 200, false, 0, 2, 1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        monitor.bindTo(registry);
+
+        // When
+        try (Connection ignored = dataSource.getConnection()) {
+            // Then
+            assertThat(registry.get("blog.db.pool.utilization").tag("pool", "test-pool").gauge().value()).isEqualTo(0.5);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.sebas.blogbackendspringboot.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryStatsTest {
+
+    @AfterEach
+    void tearDown(){
+        QueryStats.end();
+        QueryStats.setStatementBudget(0, false);
+    }
+
+    @Test
+    void shouldFailTheStatementThatExceedsTheBudget(){
+        // Given
+        QueryStats.setStatementBudget(2, true);
+        QueryStats stats = QueryStats.begin("GET /api/posts");
+        QueryStats.statementPrepared("select 1");
+        QueryStats.statementPrepared("select 2");
+
+        // When / Then
+        assertThatThrownBy(() -> QueryStats.statementPrepared("select 3"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("GET /api/posts ran more than 2 statements");
+        // Statements run while handling the failure do not throw again
+        QueryStats.statementPrepared("select 4");
+        assertThat(stats.getStatements()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldOnlyCountWhenNotFailing(){
+        // Given
+        QueryStats.setStatementBudget(1, false);
+        QueryStats stats = QueryStats.begin("GET /api/posts");
+
+        // When
+        QueryStats.statementPrepared("select 1");
+        QueryStats.statementPrepared("select 2");
+
+        // Then
+        assertThat(stats.getStatements()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldIgnoreStatementsOutsideARequest(){
+        // Given
+        QueryStats.setStatementBudget(1, true);
+
+        // When / Then nothing is bound to this thread, as on the async export's threads
+        QueryStats.statementPrepared("select 1");
+        QueryStats.statementPrepared("select 2");
+    }
+}
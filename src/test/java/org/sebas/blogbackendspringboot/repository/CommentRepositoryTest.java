@@ -0,0 +1,108 @@
+package org.sebas.blogbackendspringboot.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sebas.blogbackendspringboot.dto.CommentDto;
+import org.sebas.blogbackendspringboot.dto.PostCommentActivity;
+import org.sebas.blogbackendspringboot.model.Category;
+import org.sebas.blogbackendspringboot.model.Comment;
+import org.sebas.blogbackendspringboot.model.Post;
+import org.sebas.blogbackendspringboot.model.User;
+import org.sebas.blogbackendspringboot.repo.CategoryRepo;
+import org.sebas.blogbackendspringboot.repo.CommentRepo;
+import org.sebas.blogbackendspringboot.repo.PostRepo;
+import org.sebas.blogbackendspringboot.repo.UserRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DataJpaTest
+class CommentRepositoryTest {
+    @Autowired
+    private CommentRepo commentRepo;
+    @Autowired
+    private PostRepo postRepo;
+    @Autowired
+    private UserRepo userRepo;
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    private User testUser;
+    private Post testPost;
+
+    @BeforeEach
+    void setUp(){
+        testUser = new User();
+        testUser.setUsername("testuser");
+        testUser.setEmail("test@example.com");
+        testUser.setPassword("testpassword");
+        userRepo.save(testUser);
+
+        Category testCategory = new Category();
+        testCategory.setName("Technology");
+        categoryRepo.save(testCategory);
+
+        testPost = new Post();
+        testPost.setTitle("Test Post");
+        testPost.setContent("Test content");
+        testPost.setAuthor(testUser);
+        testPost.setCategory(testCategory);
+        testPost.setCreatedDate(LocalDateTime.now());
+        postRepo.save(testPost);
+    }
+
+    @Test
+    void shouldWalkCommentsOldestFirstWithKeysetPages() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 5; i++) {
+            Comment comment = new Comment();
+            comment.setContent("Comment " + i);
+            comment.setUser(testUser);
+            comment.setPost(testPost);
+            comment.setCreatedAt(start.plusMinutes(i));
+            commentRepo.save(comment);
+        }
+
+        // When
+        List<CommentDto> firstPage = commentRepo.findFirstPage(testPost.getId(), PageRequest.of(0, 2));
+        CommentDto last = firstPage.getLast();
+        List<CommentDto> secondPage = commentRepo.findPageAfter(
+                testPost.getId(), last.getCreatedAt(), last.getId(), PageRequest.of(0, 2));
+
+        // Then
+        assertThat(firstPage).extracting(CommentDto::getContent).containsExactly("Comment 0", "Comment 1");
+        assertThat(secondPage).extracting(CommentDto::getContent).containsExactly("Comment 2", "Comment 3");
+        assertThat(secondPage).extracting(CommentDto::getAuthor).containsOnly("testuser");
+    }
+
+    @Test
+    void shouldSumDecayedCommentActivityPerPost() {
+        // Given three comments a day ago, one outside the window
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (LocalDateTime createdAt : List.of(now.minusDays(1), now.minusDays(1), now.minusDays(1), now.minusDays(20))) {
+            Comment comment = new Comment();
+            comment.setContent("Comment");
+            comment.setUser(testUser);
+            comment.setPost(testPost);
+            comment.setCreatedAt(createdAt);
+            commentRepo.save(comment);
+        }
+
+        // When, with a 24 hour half-life
+        List<PostCommentActivity> activity = commentRepo.findDecayedActivitySince(
+                now.minusDays(14), now, Math.log(2) / 86_400);
+
+        // Then
+        assertThat(activity).hasSize(1);
+        assertThat(activity.getFirst().postId()).isEqualTo(testPost.getId());
+        assertThat(activity.getFirst().decayedCount()).isCloseTo(1.5, within(0.001));
+    }
+}
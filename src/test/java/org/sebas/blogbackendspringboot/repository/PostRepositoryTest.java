@@ -3,7 +3,10 @@ package org.sebas.blogbackendspringboot.repository;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.sebas.blogbackendspringboot.dto.CreatePostDto;
+import org.sebas.blogbackendspringboot.dto.PostSummaryDto;
 import org.sebas.blogbackendspringboot.model.Category;
 import org.sebas.blogbackendspringboot.model.Post;
 import org.sebas.blogbackendspringboot.model.User;
@@ -12,8 +15,11 @@ import org.sebas.blogbackendspringboot.repo.UserRepo;
 import org.sebas.blogbackendspringboot.repo.CategoryRepo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -26,6 +32,8 @@ class PostRepositoryTest {
     private UserRepo userRepo;
     @Autowired
     private CategoryRepo categoryRepo;
+    @Autowired
+    private TestEntityManager entityManager;
 
     private User testUser;
     private Category testCategory;
@@ -60,10 +68,136 @@ class PostRepositoryTest {
         postRepository.save(testPost);
 
         // When
-        List<Post> found = postRepository.searchByTitle("Test Post");
+        List<CreatePostDto> found = postRepository.searchByTitle("Test Post");
 
         // Then
         assertThat(found).hasSize(1);
         assertThat(found.getFirst().getTitle()).isEqualTo("Test Post");
     }
+
+    @Test
+    void shouldWalkPostsNewestFirstWithKeysetPages() {
+        // Given
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 5; i++) {
+            savePostCreatedAt("Keyset Post " + i, testCategory, now.minusMinutes(i));
+        }
+
+        // When
+        List<PostSummaryDto> firstPage = postRepository.findFirstPage(PageRequest.of(0, 2));
+        PostSummaryDto last = firstPage.getLast();
+        List<PostSummaryDto> secondPage = postRepository.findPageAfter(last.getCreatedDate(), last.getId(), PageRequest.of(0, 2));
+
+        // Then
+        assertThat(firstPage).extracting(PostSummaryDto::getTitle).containsExactly("Keyset Post 0", "Keyset Post 1");
+        assertThat(secondPage).extracting(PostSummaryDto::getTitle).containsExactly("Keyset Post 2", "Keyset Post 3");
+    }
+
+    @Test
+    void shouldWalkOneCategoryWithKeysetPages() {
+        // Given
+        Category otherCategory = new Category();
+        otherCategory.setName("Other");
+        categoryRepo.save(otherCategory);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 6; i++) {
+            // Every other post belongs to another category
+            savePostCreatedAt("Category Post " + i, i % 2 == 0 ? testCategory : otherCategory, now.minusMinutes(i));
+        }
+
+        // When
+        List<PostSummaryDto> firstPage = postRepository.findFirstPageByCategory(testCategory.getId(), PageRequest.of(0, 2));
+        PostSummaryDto last = firstPage.getLast();
+        List<PostSummaryDto> secondPage = postRepository.findPageAfterByCategory(testCategory.getId(),
+                last.getCreatedDate(), last.getId(), PageRequest.of(0, 2));
+
+        // Then
+        assertThat(firstPage).extracting(PostSummaryDto::getTitle).containsExactly("Category Post 0", "Category Post 2");
+        assertThat(secondPage).extracting(PostSummaryDto::getTitle).containsExactly("Category Post 4");
+    }
+
+    @Test
+    void shouldListPostsWithConstantStatementCount() {
+        // Given
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        // When
+        savePostsWithDistinctAuthors(2);
+        long fewRows = countListStatements(statistics);
+        savePostsWithDistinctAuthors(20);
+        long manyRows = countListStatements(statistics);
+
+        // Then one select per list call, no per-row author or category loads
+        assertThat(fewRows).isEqualTo(4);
+        assertThat(manyRows).isEqualTo(fewRows);
+    }
+
+    @Test
+    void shouldIncrementAndReconcileCommentCount() {
+        // Given
+        postRepository.save(testPost);
+        entityManager.flush();
+
+        // When
+        postRepository.incrementCommentCount(testPost.getId(), 3, LocalDateTime.now());
+        entityManager.clear();
+
+        // Then
+        assertThat(postRepository.findById(testPost.getId()).orElseThrow().getCommentCount()).isEqualTo(3);
+        assertThat(postRepository.reconcileCommentCounts()).isEqualTo(1);
+        entityManager.clear();
+        assertThat(postRepository.findById(testPost.getId()).orElseThrow().getCommentCount()).isZero();
+        assertThat(postRepository.reconcileCommentCounts()).isZero();
+    }
+
+    /**
+     * Save a backdated post
+     */
+    private Post savePostCreatedAt(String title, Category category, LocalDateTime createdDate) {
+        Post post = new Post();
+        post.setTitle(title);
+        post.setContent(title + " content");
+        post.setAuthor(testUser);
+        post.setCategory(category);
+        post.setCreatedDate(createdDate);
+        postRepository.save(post);
+        entityManager.flush();
+        entityManager.clear();
+        return post;
+    }
+
+    private void savePostsWithDistinctAuthors(int count) {
+        for (int i = 0; i < count; i++) {
+            User author = new User();
+            author.setUsername("author" + i);
+            author.setEmail("author" + i + "@example.com");
+            author.setPassword("testpassword");
+            userRepo.save(author);
+
+            Category category = new Category();
+            category.setName("Category " + i);
+            categoryRepo.save(category);
+
+            Post post = new Post();
+            post.setTitle("Projection Post " + i);
+            post.setContent("Projection content " + i);
+            post.setAuthor(author);
+            post.setCategory(category);
+            post.setCreatedDate(LocalDateTime.now());
+            postRepository.save(post);
+        }
+    }
+
+    private long countListStatements(Statistics statistics) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        postRepository.findAllPostDtos();
+        postRepository.searchByTitle("Projection");
+        postRepository.searchPostByAuthorId(testUser.getId());
+        postRepository.findFirstPage(PageRequest.of(0, 50));
+        return statistics.getPrepareStatementCount();
+    }
 }
\ No newline at end of file
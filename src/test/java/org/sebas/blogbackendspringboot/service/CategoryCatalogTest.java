@@ -0,0 +1,83 @@
+package org.sebas.blogbackendspringboot.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sebas.blogbackendspringboot.model.Category;
+import org.sebas.blogbackendspringboot.repo.CategoryRepo;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryCatalogTest {
+
+    @Mock
+    CategoryRepo categoryRepo;
+
+    @InjectMocks
+    CategoryCatalog categoryCatalog;
+
+    @BeforeEach
+    void setUp(){
+        when(categoryRepo.findAllByOrderByIdAsc()).thenReturn(List.of(category(1L, "Technology"), category(3L, "Travel")));
+        categoryCatalog.refresh();
+    }
+
+    @Test
+    void shouldAnswerKnownCategoriesWithoutTheDatabase(){
+        // When
+        boolean exists = categoryCatalog.exists(3L);
+
+        // Then
+        assertThat(exists).isTrue();
+        assertThat(categoryCatalog.name(1L)).isEqualTo("Technology");
+        assertThat(categoryCatalog.size()).isEqualTo(2);
+        verify(categoryRepo, never()).existsById(3L);
+    }
+
+    @Test
+    void shouldRejectAnUnknownCategoryAfterOneLookup(){
+        // Given
+        when(categoryRepo.existsById(2L)).thenReturn(false);
+
+        // When
+        boolean exists = categoryCatalog.exists(2L);
+
+        // Then
+        assertThat(exists).isFalse();
+        assertThat(categoryCatalog.name(2L)).isNull();
+        verify(categoryRepo, times(1)).findAllByOrderByIdAsc();
+    }
+
+    @Test
+    void shouldReloadWhenANewCategoryIsFound(){
+        // Given
+        when(categoryRepo.existsById(2L)).thenReturn(true);
+        when(categoryRepo.findAllByOrderByIdAsc()).thenReturn(
+                List.of(category(1L, "Technology"), category(2L, "Science"), category(3L, "Travel")));
+
+        // When
+        boolean exists = categoryCatalog.exists(2L);
+
+        // Then
+        assertThat(exists).isTrue();
+        assertThat(categoryCatalog.name(2L)).isEqualTo("Science");
+        assertThat(categoryCatalog.contains(2L)).isTrue();
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+}
@@ -0,0 +1,134 @@
+package org.sebas.blogbackendspringboot.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sebas.blogbackendspringboot.dto.BulkCreateCommentDto;
+import org.sebas.blogbackendspringboot.dto.CreateCommentDto;
+import org.sebas.blogbackendspringboot.model.Post;
+import org.sebas.blogbackendspringboot.model.User;
+import org.sebas.blogbackendspringboot.repo.CommentRepo;
+import org.sebas.blogbackendspringboot.repo.PostRepo;
+import org.sebas.blogbackendspringboot.repo.UserRepo;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CommentServiceTest {
+
+    @Mock
+    CommentRepo commentRepo;
+
+    @Mock
+    PostRepo postRepo;
+
+    @Mock
+    UserRepo userRepo;
+
+    @Mock
+    PostDtoCache postDtoCache;
+
+    @Mock
+    TrendingPostRanking trendingPostRanking;
+
+    @InjectMocks
+    CommentService commentService;
+
+    private BulkCreateCommentDto bulkCreateCommentDto;
+
+    @BeforeEach
+    void setUp(){
+        bulkCreateCommentDto = new BulkCreateCommentDto(List.of(
+                new CreateCommentDto("First comment", 1L),
+                new CreateCommentDto("Second comment", 2L),
+                new CreateCommentDto("Third comment", 1L)
+        ));
+    }
+
+    @Test
+    void shouldAddCommentsInBulkValidatingUsersOnce(){
+        // Given
+        when(postRepo.existsById(1L)).thenReturn(true);
+        when(postRepo.getReferenceById(1L)).thenReturn(new Post());
+        when(userRepo.findExistingIds(Set.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+        when(userRepo.getReferenceById(any())).thenReturn(new User());
+
+        // When
+        ResponseEntity<?> result = commentService.addComments(1L, bulkCreateCommentDto);
+
+        // Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        verify(userRepo).findExistingIds(Set.of(1L, 2L));
+        verify(commentRepo).saveAll(anyList());
+        verify(postRepo).incrementCommentCount(eq(1L), eq(3L), any());
+        verify(postDtoCache).evict(1L);
+        verify(trendingPostRanking).commentsAdded(eq(1L), eq(3), any());
+    }
+
+    @Test
+    void shouldEvictAndRankOnlyAfterTheCommentsCommit(){
+        // Given
+        when(postRepo.existsById(1L)).thenReturn(true);
+        when(postRepo.getReferenceById(1L)).thenReturn(new Post());
+        when(userRepo.findExistingIds(Set.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+        when(userRepo.getReferenceById(any())).thenReturn(new User());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            commentService.addComments(1L, bulkCreateCommentDto);
+
+            // Then
+            verify(postDtoCache, never()).evict(1L);
+            verify(trendingPostRanking, never()).commentsAdded(eq(1L), eq(3), any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(postDtoCache).evict(1L);
+            verify(trendingPostRanking).commentsAdded(eq(1L), eq(3), any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldRejectTheWholeBatchWhenAUserIsMissing(){
+        // Given
+        when(postRepo.existsById(1L)).thenReturn(true);
+        when(userRepo.findExistingIds(Set.of(1L, 2L))).thenReturn(List.of(1L));
+
+        // When
+        ResponseEntity<?> result = commentService.addComments(1L, bulkCreateCommentDto);
+
+        // Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(result.getBody()).isEqualTo("User not found: [2]");
+        verify(commentRepo, never()).saveAll(anyList());
+    }
+
+    @Test
+    void shouldReturnNotFoundForBulkCommentsOnAMissingPost(){
+        // Given
+        when(postRepo.existsById(1L)).thenReturn(false);
+
+        // When
+        ResponseEntity<?> result = commentService.addComments(1L, bulkCreateCommentDto);
+
+        // Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        verify(commentRepo, never()).saveAll(anyList());
+    }
+}
@@ -147,6 +147,31 @@ class JWTServiceTest {
             jwtService.extractUsername(invalidToken);
         }, "Invalid token should throw exception");
     }
+    /**
+     * Test that a repeat token is verified only once
+     * Verifies that the second call is answered from the verification cache
+     */
+    @Test
+    void testVerify_RepeatToken_ReturnsCachedResult() {
+        JWTService.VerifiedToken first = jwtService.verify(validToken);
+        JWTService.VerifiedToken second = jwtService.verify(validToken);
+
+        assertEquals(testUsername, first.username());
+        assertSame(first, second, "Repeat token should come from the cache");
+    }
+
+    /**
+     * Test verifying an expired token
+     * Verifies that expired tokens are rejected rather than cached
+     */
+    @Test
+    void testVerify_ExpiredToken_ThrowsException() throws Exception {
+        String expiredToken = createExpiredToken();
+
+        assertThrows(Exception.class, () -> jwtService.verify(expiredToken),
+            "Expired token should be rejected");
+    }
+
     /**
      * Helper method to create an expired token for testing
      * Uses reflection to access private methods and create expired token
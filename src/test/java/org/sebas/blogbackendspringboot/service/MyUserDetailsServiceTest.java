@@ -0,0 +1,117 @@
+package org.sebas.blogbackendspringboot.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sebas.blogbackendspringboot.model.User;
+import org.sebas.blogbackendspringboot.repo.UserRepo;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MyUserDetailsServiceTest {
+
+    @Mock
+    UserRepo userRepo;
+
+    MyUserDetailsService userDetailsService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp(){
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+        testUser.setPassword("testpassword");
+
+        userDetailsService = new MyUserDetailsService(100, 60);
+        userDetailsService.setRepo(userRepo);
+    }
+
+    @Test
+    void shouldLoadAUserOnceAndServeRepeatsFromCache(){
+        // Given
+        when(userRepo.findByUsername("testuser")).thenReturn(testUser);
+
+        // When
+        UserDetails first = userDetailsService.loadUserByUsername("testuser");
+        UserDetails second = userDetailsService.loadUserByUsername("testuser");
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(userDetailsService.stats().getHitCount()).isEqualTo(1);
+        verify(userRepo, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    void shouldReloadAUserAfterEviction(){
+        // Given
+        when(userRepo.findByUsername("testuser")).thenReturn(testUser);
+        userDetailsService.loadUserByUsername("testuser");
+
+        // When
+        userDetailsService.evict("testuser");
+        userDetailsService.loadUserByUsername("testuser");
+
+        // Then
+        verify(userRepo, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void shouldNotCacheUnknownUsers(){
+        // Given
+        when(userRepo.findByUsername("ghost")).thenReturn(null);
+
+        // When and then
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("ghost"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("ghost"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        verify(userRepo, times(2)).findByUsername("ghost");
+    }
+
+    @Test
+    void shouldStoreAnUpgradedHashAndEvictTheCachedUser(){
+        // Given
+        testUser.setPassword("$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ01");
+        when(userRepo.findByUsername("testuser")).thenReturn(testUser);
+        UserDetails cached = userDetailsService.loadUserByUsername("testuser");
+        String upgraded = "{bcrypt}$2a$12$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ01";
+
+        // When
+        UserDetails updated = userDetailsService.updatePassword(cached, upgraded);
+
+        // Then
+        assertThat(updated.getPassword()).isEqualTo(upgraded);
+        verify(userRepo).save(testUser);
+        userDetailsService.loadUserByUsername("testuser");
+        verify(userRepo, times(3)).findByUsername("testuser");
+    }
+
+    @Test
+    void shouldNeverDowngradeAStoredHash(){
+        // Given
+        String stored = "$2a$14$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ01";
+        testUser.setPassword(stored);
+        when(userRepo.findByUsername("testuser")).thenReturn(testUser);
+
+        // When
+        userDetailsService.updatePassword(userDetailsService.loadUserByUsername("testuser"),
+                "{bcrypt}$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ01");
+
+        // Then
+        assertThat(testUser.getPassword()).isEqualTo(stored);
+        verify(userRepo, never()).save(any());
+    }
+}
@@ -0,0 +1,80 @@
+package org.sebas.blogbackendspringboot.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostSearchIndexTest {
+
+    PostSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        searchIndex = new PostSearchIndex("");
+        searchIndex.index(1L, "Spring caching", "content");
+        searchIndex.index(2L, "Spring security", "content");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        searchIndex.destroy();
+    }
+
+    @Test
+    void shouldKeepServingTheOldIndexWhileARebuildLoads(){
+        // Given
+        List<List<Long>> seenDuringRebuild = new ArrayList<>();
+
+        // When
+        long loaded = searchIndex.rebuild(sink -> {
+            sink.add(1L, "Spring caching", "content");
+            seenDuringRebuild.add(searchIndex.search("spring", true, 0, 10));
+            // Another write refreshes the searcher mid rebuild
+            searchIndex.index(3L, "Spring data", "content");
+            seenDuringRebuild.add(searchIndex.search("spring", true, 0, 10));
+            sink.add(2L, "Spring security", "content");
+            return 2;
+        });
+
+        // Then
+        assertThat(loaded).isEqualTo(2);
+        assertThat(seenDuringRebuild.get(0)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(seenDuringRebuild.get(1)).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(searchIndex.search("spring", true, 0, 10)).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void shouldNotLetARebuildUndoWritesMadeWhileItLoaded(){
+        // When
+        searchIndex.rebuild(sink -> {
+            // The loader read both posts before they were changed
+            searchIndex.delete(1L);
+            searchIndex.index(2L, "Lucene security", "content");
+            sink.add(1L, "Spring caching", "content");
+            sink.add(2L, "Spring security", "content");
+            return 2;
+        });
+
+        // Then
+        assertThat(searchIndex.search("spring", true, 0, 10)).isEmpty();
+        assertThat(searchIndex.search("lucene", true, 0, 10)).containsExactly(2L);
+    }
+
+    @Test
+    void shouldDropPostsTheRebuildDidNotLoad(){
+        // When
+        searchIndex.rebuild(sink -> {
+            sink.add(2L, "Spring security", "content");
+            return 1;
+        });
+
+        // Then
+        assertThat(searchIndex.search("spring", true, 0, 10)).containsExactly(2L);
+    }
+}
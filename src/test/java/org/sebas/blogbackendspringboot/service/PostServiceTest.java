@@ -7,14 +7,25 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.sebas.blogbackendspringboot.dto.CreatePostDto;
+import org.sebas.blogbackendspringboot.dto.PageCursor;
+import org.sebas.blogbackendspringboot.dto.PostPageDto;
+import org.sebas.blogbackendspringboot.dto.PostSummaryDto;
+import org.sebas.blogbackendspringboot.dto.PostVersion;
 import org.sebas.blogbackendspringboot.model.Category;
 import org.sebas.blogbackendspringboot.model.Post;
 import org.sebas.blogbackendspringboot.model.User;
 import org.sebas.blogbackendspringboot.repo.CategoryRepo;
 import org.sebas.blogbackendspringboot.repo.PostRepo;
 import org.sebas.blogbackendspringboot.repo.UserRepo;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -24,6 +35,8 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -39,6 +52,24 @@ class PostServiceTest {
     @Mock
     CategoryRepo categoryRepo;
 
+    @Mock
+    PostDtoCache postDtoCache;
+
+    @Mock
+    PostSearchIndex postSearchIndex;
+
+    @Mock
+    PostViewCounter postViewCounter;
+
+    @Mock
+    TrendingPostRanking trendingPostRanking;
+
+    @Mock
+    CategoryPageCache categoryPageCache;
+
+    @Mock
+    CategoryCatalog categoryCatalog;
+
     @InjectMocks
     PostService postService;
 
@@ -46,6 +77,9 @@ class PostServiceTest {
     private Category testCategory;
     private Post testPost;
     private CreatePostDto createPostDto;
+    private MockHttpServletRequest servletRequest;
+    private MockHttpServletResponse servletResponse;
+    private ServletWebRequest webRequest;
 
     @BeforeEach
     void setUp(){
@@ -69,11 +103,16 @@ class PostServiceTest {
         testPost.setComments(Arrays.asList());
 
         createPostDto = new CreatePostDto("Test Post", "Test content", 1L, 1L);
+
+        servletRequest = new MockHttpServletRequest("GET", "/api/posts/1");
+        servletResponse = new MockHttpServletResponse();
+        webRequest = new ServletWebRequest(servletRequest, servletResponse);
     }
     @Test
     void shouldCreateAPost(){
         when(userRepo.findById(1L)).thenReturn(Optional.of(testUser));
-        when(categoryRepo.findById(1L)).thenReturn(Optional.of(testCategory));
+        when(categoryCatalog.exists(1L)).thenReturn(true);
+        when(categoryRepo.getReferenceById(1L)).thenReturn(testCategory);
         when(postRepo.save(any(Post.class))).thenReturn(testPost);
 
         // When
@@ -82,8 +121,11 @@ class PostServiceTest {
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         verify(userRepo).findById(1L);
-        verify(categoryRepo).findById(1L);
+        verify(categoryCatalog).exists(1L);
+        verify(categoryRepo, never()).findById(1L);
         verify(postRepo).save(any(Post.class));
+        verify(postSearchIndex).index(1L, "Test Post", "Test content");
+        verify(categoryPageCache).evict(1L);
 
 
     }
@@ -91,7 +133,7 @@ class PostServiceTest {
     @Test
     void shouldReturnListWithTasks(){
         // Given
-        when(postRepo.findAll()).thenReturn(List.of(testPost));
+        when(postRepo.findAllPostDtos()).thenReturn(List.of(createPostDto));
 
         // THen
         ResponseEntity<List<CreatePostDto>> postList = postService.getPostsList();
@@ -103,23 +145,71 @@ class PostServiceTest {
         assertThat(postList.getBody().getFirst().getContent())
                 .isEqualToIgnoringCase("test content");
 
-        verify(postRepo).findAll();
+        verify(postRepo).findAllPostDtos();
 
     }
 
     @Test
     void shouldReturnAPostById(){
         // Given
+        when(postRepo.findVersionById(1L)).thenReturn(Optional.of(new PostVersion(0L, 0L, testPost.getCreatedDate())));
         when(postRepo.findById(1L)).thenReturn(Optional.of(testPost));
         // When
-        ResponseEntity<CreatePostDto> result = postService.getPostById(1L);
+        ResponseEntity<CreatePostDto> result = postService.getPostById(1L, webRequest);
         //Then
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertNotNull(result.getBody());
         assertThat(result.getBody().getTitle()).isEqualTo("Test Post");
+        assertThat(servletResponse.getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"1-0-0\"");
+        verify(postRepo).findById(1L);
+        verify(postDtoCache).put(eq(1L), any(PostDtoCache.CachedPost.class));
+        verify(postViewCounter).record(1L);
+    }
+
+    @Test
+    void shouldServeACachedPostWithoutHittingTheRepository(){
+        // Given
+        when(postDtoCache.get(1L)).thenReturn(Optional.of(new PostDtoCache.CachedPost(createPostDto, "W/\"1-1000\"", 1000L)));
+        // When
+        ResponseEntity<CreatePostDto> result = postService.getPostById(1L, webRequest);
+        //Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isSameAs(createPostDto);
+        verify(postRepo, never()).findById(1L);
+        verify(postViewCounter).record(1L);
+    }
+
+    @Test
+    void shouldAnswerNotModifiedBeforeLoadingThePost(){
+        // Given
+        when(postRepo.findVersionById(1L)).thenReturn(Optional.of(new PostVersion(0L, 0L, testPost.getCreatedDate())));
+        when(postRepo.findById(1L)).thenReturn(Optional.of(testPost));
+        postService.getPostById(1L, webRequest);
+        String eTag = servletResponse.getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/api/posts/1");
+        conditional.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        // When
+        ResponseEntity<CreatePostDto> result = postService.getPostById(1L,
+                new ServletWebRequest(conditional, new MockHttpServletResponse()));
+        //Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(result.getBody()).isNull();
         verify(postRepo).findById(1L);
     }
 
+    @Test
+    void shouldAnswerNotModifiedFromTheCache(){
+        // Given
+        when(postDtoCache.get(1L)).thenReturn(Optional.of(new PostDtoCache.CachedPost(createPostDto, "W/\"1-1000\"", 1000L)));
+        servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"1-1000\"");
+        // When
+        ResponseEntity<CreatePostDto> result = postService.getPostById(1L, webRequest);
+        //Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(postRepo, never()).findVersionById(1L);
+    }
+
     @Test
     void shouldDeleteATaskWithOkStatus(){
         //Given
@@ -135,29 +225,235 @@ class PostServiceTest {
     void shouldUpdateAPostWithOkStatus(){
         //Given
         when(postRepo.findById(1L)).thenReturn(Optional.of(testPost));
-        when(categoryRepo.findById(1L)).thenReturn(Optional.of(testCategory));
+        when(categoryCatalog.exists(1L)).thenReturn(true);
+        when(categoryRepo.getReferenceById(1L)).thenReturn(testCategory);
         //When
-        var result = postService.updatePost(1L,createPostDto);
+        var result = postService.updatePost(1L,createPostDto, null);
         //Then
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getHeaders().getETag()).isEqualTo("W/\"1-0-0\"");
         verify(postRepo).findById(1L);
-        verify(categoryRepo).findById(1L);
+        verify(categoryCatalog).exists(1L);
+        verify(postRepo).saveAndFlush(testPost);
+        verify(postDtoCache).evict(1L);
+    }
+
+    @Test
+    void shouldRefuseAnUpdateWithAStaleIfMatch(){
+        //Given
+        testPost.setVersion(3);
+        when(postRepo.findById(1L)).thenReturn(Optional.of(testPost));
+        when(categoryCatalog.exists(1L)).thenReturn(true);
+        //When
+        var result = postService.updatePost(1L, createPostDto, "W/\"1-2-0\"");
+        //Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(result.getHeaders().getETag()).isEqualTo("W/\"1-3-0\"");
+        verify(postRepo, never()).saveAndFlush(any());
+        verify(postDtoCache, never()).evict(1L);
+    }
+
+    @Test
+    void shouldAcceptAnIfMatchWhoseOnlyChangeIsTheCommentCount(){
+        //Given a comment was added since the client read the post
+        testPost.setVersion(3);
+        testPost.setCommentCount(2);
+        when(postRepo.findById(1L)).thenReturn(Optional.of(testPost));
+        when(categoryCatalog.exists(1L)).thenReturn(true);
+        when(categoryRepo.getReferenceById(1L)).thenReturn(testCategory);
+        //When
+        var result = postService.updatePost(1L, createPostDto, "W/\"1-3-0\"");
+        //Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(postRepo).saveAndFlush(testPost);
+    }
+
+    @Test
+    void shouldEvictOnlyAfterTheDeleteCommits(){
+        //Given
+        when(postRepo.findById(1L)).thenReturn(Optional.of(testPost));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //When
+            postService.deletePost(1L);
+            //Then nothing is evicted while the transaction is open
+            verify(postDtoCache, never()).evict(1L);
+            verify(postSearchIndex, never()).delete(1L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(postDtoCache).evict(1L);
+            verify(postSearchIndex).delete(1L);
+            verify(trendingPostRanking).postDeleted(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldEvictBothCategoryPagesOnlyAfterTheMoveCommits(){
+        //Given the post moves from category 1 to category 2
+        Category newCategory = new Category();
+        newCategory.setId(2L);
+        createPostDto.setCategoryId(2L);
+        when(postRepo.findById(1L)).thenReturn(Optional.of(testPost));
+        when(categoryCatalog.exists(2L)).thenReturn(true);
+        when(categoryRepo.getReferenceById(2L)).thenReturn(newCategory);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //When
+            postService.updatePost(1L, createPostDto, null);
+            //Then
+            verify(categoryPageCache, never()).evict(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(categoryPageCache).evict(1L);
+            verify(categoryPageCache).evict(2L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
     void souldReturnAPostByHisTitleWithStatusOK(){
        //Given
-        when(postRepo.searchByTitle("Test Post")).thenReturn(List.of(testPost));
+        PostSummaryDto summary = new PostSummaryDto(1L, "Test Post", "Test content", 1L, 1L, testPost.getCreatedDate(), 0);
+        when(postSearchIndex.search("Test Post", true, 0, 20)).thenReturn(List.of(1L));
+        when(postRepo.findSummariesByIdIn(List.of(1L))).thenReturn(List.of(summary));
 
         //When
-        ResponseEntity<List<CreatePostDto>> result = postService.searchPostByTitle("Test Post");
+        ResponseEntity<?> result = postService.searchPosts("Test Post", null, null, null);
         //THen
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertNotNull(result.getBody());
-        assertThat(result.getBody().size()).isEqualTo(1);
-        assertThat(result.getBody().getFirst().getTitle())
-                .isEqualTo("Test Post");
+        assertThat(result.getBody()).isEqualTo(List.of(summary));
+
+        verify(postSearchIndex).search("Test Post", true, 0, 20);
+    }
+
+    @Test
+    void shouldKeepIndexRankingAndSkipDeletedPosts(){
+        //Given
+        PostSummaryDto first = new PostSummaryDto(3L, "Third Post", "Ranked first", 1L, 1L, testPost.getCreatedDate(), 0);
+        PostSummaryDto second = new PostSummaryDto(1L, "Test Post", "Ranked second", 1L, 1L, testPost.getCreatedDate(), 0);
+        when(postSearchIndex.search("content", false, 0, 20)).thenReturn(List.of(3L, 2L, 1L));
+        when(postRepo.findSummariesByIdIn(List.of(3L, 2L, 1L))).thenReturn(List.of(second, first));
+
+        //When
+        ResponseEntity<?> result = postService.searchPosts(null, "content", null, null);
+
+        //Then
+        assertThat(result.getBody()).isEqualTo(List.of(first, second));
+    }
+
+    @Test
+    void shouldReturnTrendingPostsInRankingOrder(){
+        //Given
+        PostSummaryDto hottest = new PostSummaryDto(2L, "Hot Post", "Most discussed", 1L, 1L, testPost.getCreatedDate(), 9);
+        PostSummaryDto second = new PostSummaryDto(1L, "Test Post", "Test content", 1L, 1L, testPost.getCreatedDate(), 0);
+        when(trendingPostRanking.top(10)).thenReturn(List.of(2L, 1L));
+        when(postRepo.findSummariesByIdIn(List.of(2L, 1L))).thenReturn(List.of(second, hottest));
+
+        //When
+        ResponseEntity<List<PostSummaryDto>> result = postService.getTrendingPosts(null);
+
+        //Then
+        assertThat(result.getBody()).containsExactly(hottest, second);
+    }
+
+    @Test
+    void shouldRequireATitleOrQueryToSearch(){
+        ResponseEntity<?> result = postService.searchPosts(null, " ", null, null);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldReturnFirstPageWithNextCursor(){
+        //Given
+        PostSummaryDto newerPost = new PostSummaryDto(1L, "Test Post", "Test content", 1L, 1L, testPost.getCreatedDate(), 0);
+        PostSummaryDto olderPost = new PostSummaryDto(2L, "Older Post", "Older content", 1L, 1L,
+                testPost.getCreatedDate().minusDays(1), 0);
+        when(postRepo.findFirstPage(any(Pageable.class))).thenReturn(List.of(newerPost, olderPost));
+
+        //When
+        ResponseEntity<?> result = postService.getPostsPage(null, 1);
+
+        //Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        PostPageDto page = (PostPageDto) result.getBody();
+        assertNotNull(page);
+        assertThat(page.getPosts()).hasSize(1);
+        assertThat(page.getPosts().getFirst().getId()).isEqualTo(1L);
+        assertThat(PageCursor.decode(page.getNextCursor()))
+                .isEqualTo(new PageCursor(testPost.getCreatedDate(), 1L));
+    }
+
+    @Test
+    void shouldLoadAndCacheTheFirstCategoryPage(){
+        //Given
+        PostSummaryDto post = new PostSummaryDto(1L, "Test Post", "Test content", 1L, 1L, testPost.getCreatedDate(), 0);
+        when(categoryCatalog.exists(1L)).thenReturn(true);
+        when(categoryCatalog.name(1L)).thenReturn("Technology");
+        when(postRepo.findFirstPageByCategory(eq(1L), any(Pageable.class))).thenReturn(List.of(post));
+
+        //When
+        ResponseEntity<?> result = postService.getCategoryPostsPage(1L, null, null);
+
+        //Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        PostPageDto page = (PostPageDto) result.getBody();
+        assertNotNull(page);
+        assertThat(page.getPosts()).containsExactly(post);
+        assertThat(page.getPosts().getFirst().getCategoryName()).isEqualTo("Technology");
+        assertThat(page.getNextCursor()).isNull();
+        verify(categoryPageCache).put(1L, page);
+    }
+
+    @Test
+    void shouldServeTheFirstCategoryPageFromTheCache(){
+        //Given
+        PostPageDto cached = new PostPageDto(List.of(), null);
+        when(categoryPageCache.get(1L)).thenReturn(Optional.of(cached));
+
+        //When
+        ResponseEntity<?> result = postService.getCategoryPostsPage(1L, null, null);
+
+        //Then
+        assertThat(result.getBody()).isSameAs(cached);
+        verify(categoryCatalog, never()).exists(1L);
+        verify(postRepo, never()).findFirstPageByCategory(eq(1L), any(Pageable.class));
+    }
+
+    @Test
+    void shouldReturnNotFoundForPostsOfAMissingCategory(){
+        //Given
+        when(categoryCatalog.exists(9L)).thenReturn(false);
+
+        //When
+        ResponseEntity<?> result = postService.getCategoryPostsPage(9L, null, null);
+
+        //Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldContinueFromCursorAndEndWithoutNextCursor(){
+        //Given
+        PageCursor cursor = new PageCursor(LocalDateTime.now(), 5L);
+        when(postRepo.findPageAfter(eq(cursor.timestamp()), eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(new PostSummaryDto(1L, "Test Post", "Test content", 1L, 1L, cursor.timestamp(), 0)));
+
+        //When
+        ResponseEntity<?> result = postService.getPostsPage(cursor.encode(), 10);
+
+        //Then
+        PostPageDto page = (PostPageDto) result.getBody();
+        assertNotNull(page);
+        assertThat(page.getPosts()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldReturnBadRequestForMalformedCursor(){
+        ResponseEntity<?> result = postService.getPostsPage("not-a-cursor", 10);
 
-        verify(postRepo).searchByTitle("Test Post");
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 }
\ No newline at end of file
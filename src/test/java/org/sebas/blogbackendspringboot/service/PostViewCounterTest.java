@@ -0,0 +1,106 @@
+package org.sebas.blogbackendspringboot.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PostViewCounterTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    private PostViewCounter postViewCounter;
+
+    @BeforeEach
+    void setUp(){
+        postViewCounter = new PostViewCounter(jdbcTemplate, 100, 500);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWriteAccumulatedViewsInOneBatch(){
+        // Given
+        for (int i = 0; i < 5; i++) {
+            postViewCounter.record(1L);
+        }
+        postViewCounter.record(2L);
+
+        // When
+        long written = postViewCounter.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(PostViewCounter.FLUSH_SQL), batch.capture());
+        assertThat(batch.getValue()).containsExactlyInAnyOrder(new Object[]{5L, 1L}, new Object[]{1L, 2L});
+        assertThat(written).isEqualTo(6);
+        assertThat(postViewCounter.pendingViews(1L)).isZero();
+    }
+
+    @Test
+    void shouldSkipTheDatabaseWhenNothingWasViewed(){
+        // When
+        long written = postViewCounter.flush();
+
+        // Then
+        assertThat(written).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(eq(PostViewCounter.FLUSH_SQL), anyList());
+    }
+
+    @Test
+    void shouldKeepViewsWhenTheFlushFails(){
+        // Given
+        postViewCounter.record(1L);
+        postViewCounter.record(1L);
+        when(jdbcTemplate.batchUpdate(eq(PostViewCounter.FLUSH_SQL), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        // When
+        long written = postViewCounter.flush();
+
+        // Then
+        assertThat(written).isZero();
+        assertThat(postViewCounter.pendingViews(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldFlushEarlyWhenTooManyPostsArePending(){
+        // Given
+        PostViewCounter smallCounter = new PostViewCounter(jdbcTemplate, 2, 500);
+
+        // When
+        smallCounter.record(1L);
+        smallCounter.record(2L);
+        smallCounter.record(3L);
+
+        // Then
+        verify(jdbcTemplate, timeout(1000)).batchUpdate(eq(PostViewCounter.FLUSH_SQL), anyList());
+    }
+
+    @Test
+    void shouldFlushPendingViewsOnShutdown() throws InterruptedException {
+        // Given
+        postViewCounter.record(1L);
+
+        // When
+        postViewCounter.shutdown();
+
+        // Then
+        verify(jdbcTemplate).batchUpdate(eq(PostViewCounter.FLUSH_SQL), anyList());
+    }
+}
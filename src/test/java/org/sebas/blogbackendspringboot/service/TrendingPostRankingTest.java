@@ -0,0 +1,129 @@
+package org.sebas.blogbackendspringboot.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sebas.blogbackendspringboot.dto.PostActivity;
+import org.sebas.blogbackendspringboot.dto.PostCommentActivity;
+import org.sebas.blogbackendspringboot.repo.CommentRepo;
+import org.sebas.blogbackendspringboot.repo.PostRepo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingPostRankingTest {
+
+    @Mock
+    PostRepo postRepo;
+
+    @Mock
+    CommentRepo commentRepo;
+
+    private TrendingPostRanking ranking;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp(){
+        // 24h half-life, a comment weighs twice a publication, top 3, 14 day window
+        ranking = new TrendingPostRanking(24, 1, 2, 3, 336);
+        ranking.setRepos(postRepo, commentRepo);
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void shouldRankNewerPostsFirst(){
+        // When
+        ranking.postPublished(1L, now.minusDays(2));
+        ranking.postPublished(2L, now.minusHours(1));
+        ranking.postPublished(3L, now.minusDays(1));
+
+        // Then
+        assertThat(ranking.top(10)).containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void shouldLiftAnOlderPostWithRecentComments(){
+        // Given
+        ranking.postPublished(1L, now.minusDays(2));
+        ranking.postPublished(2L, now.minusHours(1));
+
+        // When
+        ranking.commentsAdded(1L, 1, now);
+
+        // Then
+        assertThat(ranking.top(10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void shouldKeepOnlyTheBestPostsUpToCapacity(){
+        // When
+        for (long id = 1; id <= 5; id++) {
+            ranking.postPublished(id, now.minusHours(10 - id));
+        }
+        ranking.commentsAdded(1L, 3, now);
+
+        // Then the oldest post re-enters on comments and pushes out the weakest ones
+        assertThat(ranking.top(10)).containsExactly(1L, 5L, 4L);
+    }
+
+    @Test
+    void shouldForgetDeletedPosts(){
+        // Given
+        ranking.postPublished(1L, now);
+        ranking.postPublished(2L, now.minusHours(1));
+
+        // When
+        ranking.postDeleted(1L);
+
+        // Then
+        assertThat(ranking.top(10)).containsExactly(2L);
+    }
+
+    @Test
+    void shouldKeepTheOrderWhenRebasingAndDropExpiredPosts(){
+        // Given
+        ranking.postPublished(1L, now.minusHours(5));
+        ranking.postPublished(2L, now.minusHours(1));
+        ranking.postPublished(3L, now.minusDays(30));
+
+        // When
+        ranking.rebase();
+
+        // Then
+        assertThat(ranking.top(10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void shouldRebuildFromPostsAndComments(){
+        // Given
+        when(postRepo.findPublishedSince(any())).thenReturn(List.of(
+                new PostActivity(1L, now.minusDays(3)),
+                new PostActivity(2L, now.minusHours(2))));
+        when(commentRepo.findDecayedActivitySince(any(), any(), anyDouble())).thenReturn(List.of(
+                new PostCommentActivity(1L, 1.99)));
+
+        // When
+        int ranked = ranking.rebuild();
+
+        // Then
+        assertThat(ranked).isEqualTo(2);
+        assertThat(ranking.top(1)).containsExactly(1L);
+    }
+
+    @Test
+    void shouldRejectAnEmptyCapacity(){
+        // When and then
+        assertThatThrownBy(() -> new TrendingPostRanking(24, 1, 2, 0, 336))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("capacity");
+    }
+}